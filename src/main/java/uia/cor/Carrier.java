@@ -0,0 +1,34 @@
+package uia.cor;
+
+/**
+ * The carrier starts the thread which runs the iterable program of a yield.<br>
+ *
+ * <p>
+ * Use {@link Carriers} to get the built-in implementations.
+ * </p>
+ *
+ * @author Kan
+ *
+ */
+public interface Carrier {
+
+    /**
+     * Starts a new thread to run the task.
+     *
+     * @param name The name of the yield. Could be null.
+     * @param task The task.
+     */
+    public void start(String name, Runnable task);
+
+    /**
+     * Starts a new thread with the stack size hint to run the task.<br>
+     * The hint is ignored by default.
+     *
+     * @param name The name of the yield. Could be null.
+     * @param stackSize The stack size in bytes. 0 means the default of the JVM.
+     * @param task The task.
+     */
+    public default void start(String name, long stackSize, Runnable task) {
+        start(name, task);
+    }
+}
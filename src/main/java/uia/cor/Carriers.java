@@ -0,0 +1,382 @@
+package uia.cor;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * The built-in carriers.<br>
+ *
+ * <ul>
+ * <li>platform - one platform thread with MAX_PRIORITY for each yield. The default.</li>
+ * <li>virtual - one virtual thread for each yield, JDK 21+ only.</li>
+ * <li>of(factory) - threads created by a caller-provided ThreadFactory.</li>
+ * <li>withStackSize(carrier, size) - the carrier starting threads with the stack size.</li>
+ * </ul>
+ *
+ * <p>
+ * The class also accounts the memory of the coroutines, the number of live iterable programs
+ * and the stack bytes reserved by the threads of the built-in carriers.
+ * The stack of a platform thread is reserved when the thread starts and released when it exits,
+ * the stack of a virtual thread lives in the heap and is not counted.
+ * </p>
+ *
+ * @author Kan
+ *
+ */
+public final class Carriers {
+
+    private static final Logger logger = LogManager.getLogger(Carriers.class);
+
+    private static final long DEFAULT_STACK_SIZE = lookupDefaultStackSize();
+
+    private static final Carrier PLATFORM = new PlatformCarrier();
+
+    private static final ThreadFactory VIRTUAL_FACTORY = lookupVirtualFactory();
+
+    private static final AtomicInteger LIVE = new AtomicInteger();
+
+    private static final AtomicInteger PEAK = new AtomicInteger();
+
+    private static final AtomicLong RESERVED = new AtomicLong();
+
+    private static volatile Carrier defaultCarrier = PLATFORM;
+
+    private Carriers() {
+    }
+
+    /**
+     * Returns the global default carrier.
+     *
+     * @return The carrier.
+     */
+    public static Carrier getDefault() {
+        return defaultCarrier;
+    }
+
+    /**
+     * Sets the global default carrier.
+     *
+     * @param carrier The carrier. Null means the platform carrier.
+     */
+    public static void setDefault(Carrier carrier) {
+        defaultCarrier = carrier == null ? PLATFORM : carrier;
+    }
+
+    /**
+     * Returns the carrier creating one platform thread for each yield.
+     *
+     * @return The carrier.
+     */
+    public static Carrier platform() {
+        return PLATFORM;
+    }
+
+    /**
+     * Returns the carrier creating one virtual thread for each yield.<br>
+     * Falls back to the platform carrier if the JVM does not support virtual threads.
+     *
+     * @return The carrier.
+     */
+    public static Carrier virtual() {
+        if (VIRTUAL_FACTORY == null) {
+            logger.warn("virtual threads are not supported, use platform threads instead");
+            return PLATFORM;
+        }
+        return new FactoryCarrier(VIRTUAL_FACTORY);
+    }
+
+    /**
+     * Tests if the JVM supports virtual threads.
+     *
+     * @return True if virtual threads are supported.
+     */
+    public static boolean isVirtualSupported() {
+        return VIRTUAL_FACTORY != null;
+    }
+
+    /**
+     * Returns the carrier creating threads by the factory.<br>
+     * The stack size hint is ignored since the factory decides the stack size.
+     *
+     * @param factory The thread factory.
+     * @return The carrier.
+     */
+    public static Carrier of(ThreadFactory factory) {
+        if (factory == null) {
+            throw new IllegalArgumentException("factory is null");
+        }
+        return new FactoryCarrier(factory);
+    }
+
+    /**
+     * Returns the carrier passing the stack size hint to the other carrier.
+     *
+     * @param carrier The carrier.
+     * @param stackSize The stack size in bytes. 0 means the default of the JVM.
+     * @return The carrier.
+     */
+    public static Carrier withStackSize(Carrier carrier, long stackSize) {
+        if (carrier == null) {
+            throw new IllegalArgumentException("carrier is null");
+        }
+        return stackSize <= 0 ? carrier : new SizedCarrier(carrier, stackSize);
+    }
+
+    /**
+     * Returns the number of iterable programs running now.
+     *
+     * @return The number of live coroutines.
+     */
+    public static int getLiveCount() {
+        return LIVE.get();
+    }
+
+    /**
+     * Returns the maximum number of iterable programs running at the same time since the last reset.
+     *
+     * @return The peak number of live coroutines.
+     */
+    public static int getPeakLiveCount() {
+        return PEAK.get();
+    }
+
+    /**
+     * Resets the peak number of live coroutines to the current one.
+     *
+     */
+    public static void resetPeak() {
+        PEAK.set(LIVE.get());
+    }
+
+    /**
+     * Returns the estimated stack bytes reserved by the threads of the built-in carriers.<br>
+     * The threads with the default stack size are estimated by getDefaultStackSize().
+     *
+     * @return The reserved stack bytes.
+     */
+    public static long getReservedStackBytes() {
+        return RESERVED.get();
+    }
+
+    /**
+     * Returns the default stack size of the threads, -Xss or -XX:ThreadStackSize if specified, otherwise 1MB.
+     *
+     * @return The stack size in bytes.
+     */
+    public static long getDefaultStackSize() {
+        return DEFAULT_STACK_SIZE;
+    }
+
+    static void enter() {
+        PEAK.accumulateAndGet(LIVE.incrementAndGet(), Math::max);
+    }
+
+    static void exit() {
+        LIVE.decrementAndGet();
+        Thread th = Thread.currentThread();
+        if (th instanceof PooledCarrier.WorkerThread) {
+            // back to the pool before the consumer gets the turn.
+            ((PooledCarrier.WorkerThread) th).release();
+        }
+    }
+
+    /**
+     * Reserves the stack bytes and wraps the task to release them when the thread exits.
+     *
+     * @param stackSize The stack size in bytes. 0 means the default stack size.
+     * @param task The task of the thread.
+     * @return The task releasing the stack bytes.
+     */
+    static Runnable reserve(long stackSize, Runnable task) {
+        long bytes = stackSize > 0 ? stackSize : DEFAULT_STACK_SIZE;
+        RESERVED.addAndGet(bytes);
+        return new Reserved(bytes, task);
+    }
+
+    /**
+     * Releases the stack bytes of the task if the thread failed to start.
+     *
+     * @param task The task returned by reserve().
+     */
+    static void release(Runnable task) {
+        RESERVED.addAndGet(-((Reserved) task).bytes);
+    }
+
+    private static ThreadFactory lookupVirtualFactory() {
+        // Thread.ofVirtual().factory(), resolved reflectively to keep the 1.8 target.
+        try {
+            Method ofVirtual = Thread.class.getMethod("ofVirtual");
+            Method factory = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+            return (ThreadFactory) factory.invoke(ofVirtual.invoke(null));
+        }
+        catch (Exception ex) {
+            return null;
+        }
+    }
+
+    private static long lookupDefaultStackSize() {
+        long size = 1024L * 1024L;
+        try {
+            for (String arg : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+                if (arg.startsWith("-Xss")) {
+                    size = parseSize(arg.substring(4), 1L);
+                }
+                else if (arg.startsWith("-XX:ThreadStackSize=")) {
+                    // in KB without the suffix.
+                    size = parseSize(arg.substring(20), 1024L);
+                }
+            }
+        }
+        catch (Exception ex) {
+            logger.warn(String.format("failed to lookup the stack size, use %s bytes", size));
+        }
+        return size;
+    }
+
+    /**
+     * Parses the size of a JVM option, 512k, 1m or 1g.
+     *
+     * @param size The size.
+     * @param defaultUnit The unit in bytes if the size has no suffix.
+     * @return The size in bytes.
+     */
+    static long parseSize(String size, long defaultUnit) {
+        String value = size.trim().toLowerCase();
+        long unit;
+        switch (value.charAt(value.length() - 1)) {
+            case 'k':
+                unit = 1024L;
+                break;
+            case 'm':
+                unit = 1024L * 1024L;
+                break;
+            case 'g':
+                unit = 1024L * 1024L * 1024L;
+                break;
+            default:
+                return Long.parseLong(value) * defaultUnit;
+        }
+        return Long.parseLong(value.substring(0, value.length() - 1)) * unit;
+    }
+
+    private static class Reserved implements Runnable {
+
+        private final long bytes;
+
+        private final Runnable task;
+
+        Reserved(long bytes, Runnable task) {
+            this.bytes = bytes;
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            try {
+                this.task.run();
+            }
+            finally {
+                RESERVED.addAndGet(-this.bytes);
+            }
+        }
+    }
+
+    private static class PlatformCarrier implements Carrier {
+
+        @Override
+        public void start(String name, Runnable task) {
+            start(name, 0, task);
+        }
+
+        @Override
+        public void start(String name, long stackSize, Runnable task) {
+            Runnable reserved = reserve(stackSize, task);
+            Thread th = new Thread(null, reserved, name == null ? "carrier" : name, Math.max(0, stackSize));
+            th.setPriority(Thread.MAX_PRIORITY);
+            try {
+                th.start();
+            }
+            catch (Throwable ex) {
+                release(reserved);
+                throw ex;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "platform";
+        }
+    }
+
+    private static class FactoryCarrier implements Carrier {
+
+        private final ThreadFactory factory;
+
+        FactoryCarrier(ThreadFactory factory) {
+            this.factory = factory;
+        }
+
+        @Override
+        public void start(String name, Runnable task) {
+            boolean virtual = this.factory == VIRTUAL_FACTORY;
+            Runnable reserved = virtual ? task : reserve(0, task);
+            Thread th = this.factory.newThread(reserved);
+            if (th == null) {
+                if (!virtual) {
+                    release(reserved);
+                }
+                throw new YieldException("the thread factory rejected the task of " + name);
+            }
+            if (name != null) {
+                th.setName(name);
+            }
+            try {
+                th.start();
+            }
+            catch (Throwable ex) {
+                if (!virtual) {
+                    release(reserved);
+                }
+                throw ex;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return this.factory == VIRTUAL_FACTORY ? "virtual" : "factory";
+        }
+    }
+
+    private static class SizedCarrier implements Carrier {
+
+        private final Carrier carrier;
+
+        private final long stackSize;
+
+        SizedCarrier(Carrier carrier, long stackSize) {
+            this.carrier = carrier;
+            this.stackSize = stackSize;
+        }
+
+        @Override
+        public void start(String name, Runnable task) {
+            this.carrier.start(name, this.stackSize, task);
+        }
+
+        @Override
+        public void start(String name, long stackSize, Runnable task) {
+            this.carrier.start(name, stackSize > 0 ? stackSize : this.stackSize, task);
+        }
+
+        @Override
+        public String toString() {
+            return this.carrier + "(stack=" + this.stackSize + ")";
+        }
+    }
+}
@@ -1,13 +1,34 @@
 package uia.cor;
 
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 /**
  * The generator pairs with Yield.
  *
+ * <p>
+ * The generator is also an Iterable, the iterator and streams pull the values by next() and getValue(),
+ * nothing is allocated for each value. The iteration can be consumed once only.
+ * Close the stream to stop the iteration if it is short-circuited.
+ * </p>
+ *
+ * <pre>{@code
+ * try (IntStream s = Yield.accept(this::arrivals).intStream(Integer::intValue)) {
+ *     s.filter(t -> t > 100).findFirst();
+ * }
+ * }</pre>
+ *
  * @author Kan
  *
  * @param <T> The data type exchanges to the generator.
  */
-public final class Generator<T> {
+public final class Generator<T> implements Iterable<T> {
 
     private final Yield<T> yield;
 
@@ -104,4 +125,53 @@ public final class Generator<T> {
     public synchronized T getValue() {
         return this.yield.getValue();
     }
+
+    /**
+     * Returns the iterator over the remaining values.
+     *
+     * @return The iterator.
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return Iterations.iterator(this::next, this::getValue);
+    }
+
+    /**
+     * Returns the sequential spliterator over the remaining values.
+     *
+     * @return The spliterator.
+     */
+    @Override
+    public Spliterator<T> spliterator() {
+        return Iterations.spliterator(this::next, this::getValue);
+    }
+
+    /**
+     * Returns the sequential stream over the remaining values. Closing the stream stops the iteration.
+     *
+     * @return The stream.
+     */
+    public Stream<T> stream() {
+        return StreamSupport.stream(spliterator(), false).onClose(this::stop);
+    }
+
+    /**
+     * Returns the sequential int stream over the remaining values. Closing the stream stops the iteration.
+     *
+     * @param mapper The function converts the value to an int.
+     * @return The stream.
+     */
+    public IntStream intStream(ToIntFunction<? super T> mapper) {
+        return StreamSupport.intStream(Iterations.intSpliterator(this::next, this::getValue, mapper), false).onClose(this::stop);
+    }
+
+    /**
+     * Returns the sequential double stream over the remaining values. Closing the stream stops the iteration.
+     *
+     * @param mapper The function converts the value to a double.
+     * @return The stream.
+     */
+    public DoubleStream doubleStream(ToDoubleFunction<? super T> mapper) {
+        return StreamSupport.doubleStream(Iterations.doubleSpliterator(this::next, this::getValue, mapper), false).onClose(this::stop);
+    }
 }
@@ -1,14 +1,23 @@
 package uia.cor;
 
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 /**
  * The generator pairs with Yeild2Way.
  *
+ * <p>
+ * The iterator and the stream call next() without sending a result, nothing is allocated for each value.
+ * </p>
+ *
  * @author Kan
  *
  * @param <T> The data type exchanges to the generator.
  * @param <R> The data type the generator sends back.
  */
-public class Generator2Way<T, R> {
+public class Generator2Way<T, R> implements Iterable<T> {
 
     private final Yield2Way<T, R> yield;
 
@@ -157,4 +166,33 @@ public class Generator2Way<T, R> {
     public boolean isClosed() {
         return this.yield.isClosed();
     }
+
+    /**
+     * Returns the iterator over the remaining values.
+     *
+     * @return The iterator.
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return Iterations.iterator(this::next, this::getValue);
+    }
+
+    /**
+     * Returns the sequential spliterator over the remaining values.
+     *
+     * @return The spliterator.
+     */
+    @Override
+    public Spliterator<T> spliterator() {
+        return Iterations.spliterator(this::next, this::getValue);
+    }
+
+    /**
+     * Returns the sequential stream over the remaining values. Closing the stream stops the iteration.
+     *
+     * @return The stream.
+     */
+    public Stream<T> stream() {
+        return StreamSupport.stream(spliterator(), false).onClose(() -> stop((R) null));
+    }
 }
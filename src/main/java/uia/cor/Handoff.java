@@ -0,0 +1,108 @@
+package uia.cor;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The strict ping-pong handoff between a generator (consumer) and its yield (producer).<br>
+ *
+ * <p>
+ * Only one side runs at a time. The turn is passed by one volatile write and one unpark,
+ * the other side waits by parking until the turn comes back. All the fields written before
+ * passing the turn are visible to the other side after it gets the turn.
+ * </p>
+ *
+ * <p>
+ * The first turn is the startup latch: the producer could be started before or after the consumer
+ * passes the first turn, no rendezvous is required to create a pair.
+ * </p>
+ *
+ * @author Kan
+ *
+ */
+final class Handoff {
+
+    private static final int CONSUMER = 0;
+
+    private static final int PRODUCER = 1;
+
+    private volatile int turn;
+
+    private volatile Thread consumer;
+
+    private volatile Thread producer;
+
+    Handoff() {
+        this.turn = CONSUMER;
+    }
+
+    /**
+     * Tests if the thread is the producer.
+     *
+     * @param thread The thread.
+     * @return True if the thread is the producer.
+     */
+    boolean isProducer(Thread thread) {
+        return this.producer == thread;
+    }
+
+    /**
+     * Invoked by the consumer. Passes the turn to the producer and waits until it comes back.
+     *
+     */
+    void toProducer() {
+        this.consumer = Thread.currentThread();
+        this.turn = PRODUCER;
+        Thread th = this.producer;
+        if (th != null) {
+            LockSupport.unpark(th);
+        }
+        await(CONSUMER);
+    }
+
+    /**
+     * Invoked by the producer. Passes the turn to the consumer and waits until it comes back.
+     *
+     */
+    void toConsumer() {
+        this.turn = CONSUMER;
+        LockSupport.unpark(this.consumer);
+        await(PRODUCER);
+    }
+
+    /**
+     * Invoked by the producer before running the iterable program. Waits for the first turn.<br>
+     *
+     * <p>Returns immediately if the consumer has passed the first turn already.
+     *
+     */
+    void start() {
+        this.producer = Thread.currentThread();
+        await(PRODUCER);
+    }
+
+    /**
+     * Invoked by the producer after the iterable program is done. Passes the turn to the consumer without waiting.
+     *
+     */
+    void finish() {
+        this.producer = null;
+        this.turn = CONSUMER;
+        Thread th = this.consumer;
+        if (th != null) {
+            LockSupport.unpark(th);
+        }
+    }
+
+    private void await(int expected) {
+        boolean interrupted = false;
+        while (this.turn != expected) {
+            LockSupport.park(this);
+            if (Thread.interrupted()) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
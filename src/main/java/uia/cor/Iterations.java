@@ -0,0 +1,220 @@
+package uia.cor;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * The iterator and spliterators over the next/getValue protocol of the generators.<br>
+ *
+ * <p>
+ * Nothing is allocated for each element, the values are read from the generator directly.
+ * The spliterators are sequential, trySplit() always returns null.
+ * </p>
+ *
+ * @author Kan
+ *
+ */
+final class Iterations {
+
+    private static final int CHARACTERISTICS = Spliterator.ORDERED;
+
+    private Iterations() {
+    }
+
+    static <T> Iterator<T> iterator(BooleanSupplier next, Supplier<T> value) {
+        return new Iter<>(next, value);
+    }
+
+    static <T> Spliterator<T> spliterator(BooleanSupplier next, Supplier<T> value) {
+        return new Split<>(next, value);
+    }
+
+    static <T> Spliterator.OfInt intSpliterator(BooleanSupplier next, Supplier<T> value, ToIntFunction<? super T> mapper) {
+        return new SplitInt<>(next, value, mapper);
+    }
+
+    static <T> Spliterator.OfDouble doubleSpliterator(BooleanSupplier next, Supplier<T> value, ToDoubleFunction<? super T> mapper) {
+        return new SplitDouble<>(next, value, mapper);
+    }
+
+    private static class Iter<T> implements Iterator<T> {
+
+        private static final int UNKNOWN = 0;
+
+        private static final int READY = 1;
+
+        private static final int DONE = 2;
+
+        private final BooleanSupplier next;
+
+        private final Supplier<T> value;
+
+        private int state;
+
+        Iter(BooleanSupplier next, Supplier<T> value) {
+            this.next = next;
+            this.value = value;
+            this.state = UNKNOWN;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (this.state == UNKNOWN) {
+                this.state = this.next.getAsBoolean() ? READY : DONE;
+            }
+            return this.state == READY;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            this.state = UNKNOWN;
+            return this.value.get();
+        }
+    }
+
+    private static class Split<T> implements Spliterator<T> {
+
+        private final BooleanSupplier next;
+
+        private final Supplier<T> value;
+
+        Split(BooleanSupplier next, Supplier<T> value) {
+            this.next = next;
+            this.value = value;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (!this.next.getAsBoolean()) {
+                return false;
+            }
+            action.accept(this.value.get());
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            while (this.next.getAsBoolean()) {
+                action.accept(this.value.get());
+            }
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            return null;
+        }
+
+        @Override
+        public long estimateSize() {
+            return Long.MAX_VALUE;
+        }
+
+        @Override
+        public int characteristics() {
+            return CHARACTERISTICS;
+        }
+    }
+
+    private static class SplitInt<T> implements Spliterator.OfInt {
+
+        private final BooleanSupplier next;
+
+        private final Supplier<T> value;
+
+        private final ToIntFunction<? super T> mapper;
+
+        SplitInt(BooleanSupplier next, Supplier<T> value, ToIntFunction<? super T> mapper) {
+            this.next = next;
+            this.value = value;
+            this.mapper = mapper;
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            if (!this.next.getAsBoolean()) {
+                return false;
+            }
+            action.accept(this.mapper.applyAsInt(this.value.get()));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            while (this.next.getAsBoolean()) {
+                action.accept(this.mapper.applyAsInt(this.value.get()));
+            }
+        }
+
+        @Override
+        public Spliterator.OfInt trySplit() {
+            return null;
+        }
+
+        @Override
+        public long estimateSize() {
+            return Long.MAX_VALUE;
+        }
+
+        @Override
+        public int characteristics() {
+            return CHARACTERISTICS;
+        }
+    }
+
+    private static class SplitDouble<T> implements Spliterator.OfDouble {
+
+        private final BooleanSupplier next;
+
+        private final Supplier<T> value;
+
+        private final ToDoubleFunction<? super T> mapper;
+
+        SplitDouble(BooleanSupplier next, Supplier<T> value, ToDoubleFunction<? super T> mapper) {
+            this.next = next;
+            this.value = value;
+            this.mapper = mapper;
+        }
+
+        @Override
+        public boolean tryAdvance(DoubleConsumer action) {
+            if (!this.next.getAsBoolean()) {
+                return false;
+            }
+            action.accept(this.mapper.applyAsDouble(this.value.get()));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(DoubleConsumer action) {
+            while (this.next.getAsBoolean()) {
+                action.accept(this.mapper.applyAsDouble(this.value.get()));
+            }
+        }
+
+        @Override
+        public Spliterator.OfDouble trySplit() {
+            return null;
+        }
+
+        @Override
+        public long estimateSize() {
+            return Long.MAX_VALUE;
+        }
+
+        @Override
+        public int characteristics() {
+            return CHARACTERISTICS;
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package uia.cor;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * The carrier runs iterable programs back to back on recycled threads.<br>
+ *
+ * <p>
+ * At most <b>poolSize</b> threads are kept in the pool. When all of them are busy,
+ * a temporary thread is created for the new iterable program and exits when the program is done,
+ * since a parked iterable program holds its thread and can not wait for another one.
+ * </p>
+ *
+ * <p>
+ * Note: ThreadLocal values set by an iterable program are visible to the next one running on the same thread.
+ * </p>
+ *
+ * @author Kan
+ *
+ */
+public class PooledCarrier implements Carrier {
+
+    private static final Logger logger = LogManager.getLogger(PooledCarrier.class);
+
+    private final String namePrefix;
+
+    private final int poolSize;
+
+    private final long stackSize;
+
+    private final boolean daemon;
+
+    private final ArrayDeque<Worker> idle;
+
+    private final AtomicInteger seq;
+
+    private int pooled;
+
+    private int running;
+
+    private int peak;
+
+    private long hits;
+
+    private long misses;
+
+    private boolean shutdown;
+
+    /**
+     * The constructor.
+     *
+     * @param poolSize The maximum number of threads kept in the pool.
+     */
+    public PooledCarrier(int poolSize) {
+        this("carrier", poolSize, 0, true);
+    }
+
+    /**
+     * The constructor.
+     *
+     * @param namePrefix The prefix of the thread names.
+     * @param poolSize The maximum number of threads kept in the pool.
+     * @param stackSize The stack size of the threads. 0 means the default of the JVM.
+     * @param daemon Daemon threads or not.
+     */
+    public PooledCarrier(String namePrefix, int poolSize, long stackSize, boolean daemon) {
+        this.namePrefix = namePrefix;
+        this.poolSize = Math.max(0, poolSize);
+        this.stackSize = Math.max(0, stackSize);
+        this.daemon = daemon;
+        this.idle = new ArrayDeque<>();
+        this.seq = new AtomicInteger();
+    }
+
+    @Override
+    public void start(String name, Runnable task) {
+        Worker worker;
+        boolean pool;
+        synchronized (this) {
+            if (this.shutdown) {
+                throw new YieldException("the carrier is shutdown, can't start " + name);
+            }
+            this.running++;
+            this.peak = Math.max(this.peak, this.running);
+            worker = this.idle.pollFirst();
+            if (worker != null) {
+                this.hits++;
+                pool = true;
+            }
+            else {
+                this.misses++;
+                pool = this.pooled < this.poolSize;
+                if (pool) {
+                    this.pooled++;
+                }
+            }
+        }
+
+        if (worker != null) {
+            worker.assign(task);
+        }
+        else {
+            worker = new Worker(pool);
+            worker.task = task;
+            Runnable reserved = Carriers.reserve(this.stackSize, worker);
+            Thread th = new WorkerThread(reserved, this.namePrefix + "-" + this.seq.incrementAndGet(), this.stackSize, worker);
+            th.setDaemon(this.daemon);
+            worker.thread = th;
+            try {
+                th.start();
+            }
+            catch (Throwable ex) {
+                Carriers.release(reserved);
+                synchronized (this) {
+                    this.running--;
+                    if (pool) {
+                        this.pooled--;
+                    }
+                }
+                throw ex;
+            }
+        }
+    }
+
+    /**
+     * Starts the task on a thread of the pool.<br>
+     * The stack size hint is ignored, all threads of the pool have the same stack size.
+     *
+     * @param name The name of the yield. Could be null.
+     * @param stackSize The stack size hint. Ignored.
+     * @param task The task.
+     */
+    @Override
+    public void start(String name, long stackSize, Runnable task) {
+        start(name, task);
+    }
+
+    /**
+     * Stops the idle threads, the busy ones stop after their iterable programs are done.
+     *
+     */
+    public void shutdown() {
+        synchronized (this) {
+            this.shutdown = true;
+            for (Worker worker : this.idle) {
+                worker.assign(null);
+            }
+            // the idle threads leave the pool, the busy ones leave in done().
+            this.pooled -= this.idle.size();
+            this.idle.clear();
+        }
+    }
+
+    /**
+     * Returns the maximum number of threads kept in the pool.
+     *
+     * @return The pool size.
+     */
+    public int getPoolSize() {
+        return this.poolSize;
+    }
+
+    /**
+     * Returns the stack size of the threads.
+     *
+     * @return The stack size. 0 means the default of the JVM.
+     */
+    public long getStackSize() {
+        return this.stackSize;
+    }
+
+    /**
+     * Returns the number of iterable programs started on an idle thread of the pool.
+     *
+     * @return The number of hits.
+     */
+    public synchronized long getHits() {
+        return this.hits;
+    }
+
+    /**
+     * Returns the number of iterable programs which required a new thread.
+     *
+     * @return The number of misses.
+     */
+    public synchronized long getMisses() {
+        return this.misses;
+    }
+
+    /**
+     * Returns the number of iterable programs running now.
+     *
+     * @return The number of running programs.
+     */
+    public synchronized int getRunning() {
+        return this.running;
+    }
+
+    /**
+     * Returns the maximum number of iterable programs running at the same time.
+     *
+     * @return The peak concurrency.
+     */
+    public synchronized int getPeak() {
+        return this.peak;
+    }
+
+    /**
+     * Returns the number of threads belonging to the pool, idle or busy.
+     *
+     * @return The number of pooled threads.
+     */
+    public synchronized int getPooled() {
+        return this.pooled;
+    }
+
+    /**
+     * Returns the number of idle threads in the pool.
+     *
+     * @return The number of idle threads.
+     */
+    public synchronized int getIdle() {
+        return this.idle.size();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("pooled(%s, hits=%s, misses=%s, peak=%s)", this.namePrefix, getHits(), getMisses(), getPeak());
+    }
+
+    /**
+     * Returns the worker back to the pool.<br>
+     * Invoked before the consumer gets the turn back, the next start() finds the worker idle.
+     *
+     * @param worker The worker.
+     * @return True if the worker should wait for the next task, false if it should exit.
+     */
+    private synchronized boolean done(Worker worker) {
+        this.running--;
+        if (worker.pooled && !this.shutdown) {
+            this.idle.addFirst(worker);
+            return true;
+        }
+        if (worker.pooled) {
+            this.pooled--;
+        }
+        return false;
+    }
+
+    /**
+     * The thread of the pool. The yield returns the worker to the pool by it before passing the turn back.
+     *
+     * @author Kan
+     *
+     */
+    static final class WorkerThread extends Thread {
+
+        private final Worker worker;
+
+        private WorkerThread(Runnable target, String name, long stackSize, Worker worker) {
+            super(null, target, name, stackSize);
+            this.worker = worker;
+        }
+
+        /**
+         * Returns the worker to the pool. Invoked by the iterable program on this thread when it is done.
+         *
+         */
+        void release() {
+            this.worker.release();
+        }
+    }
+
+    private class Worker implements Runnable {
+
+        private final boolean pooled;
+
+        private volatile Thread thread;
+
+        private volatile Runnable task;
+
+        private volatile boolean assigned;
+
+        private boolean released;
+
+        private boolean exit;
+
+        Worker(boolean pooled) {
+            this.pooled = pooled;
+            this.assigned = true;
+        }
+
+        void assign(Runnable task) {
+            this.task = task;
+            this.assigned = true;
+            LockSupport.unpark(this.thread);
+        }
+
+        /**
+         * Returns this worker to the pool once for the current task.
+         *
+         */
+        void release() {
+            if (this.released) {
+                return;
+            }
+            this.released = true;
+            // the next task could be assigned as soon as the worker is idle.
+            this.task = null;
+            this.assigned = false;
+            this.exit = !done(this);
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Runnable t = this.task;
+                if (t == null) {
+                    break;
+                }
+                this.released = false;
+                try {
+                    t.run();
+                }
+                catch (Throwable ex) {
+                    logger.error(String.format("%s> task failed", Thread.currentThread().getName()), ex);
+                }
+                Thread.interrupted();
+                // the task is not a yield, or failed before releasing the worker.
+                release();
+                if (this.exit) {
+                    break;
+                }
+                while (!this.assigned) {
+                    LockSupport.park(this);
+                    Thread.interrupted();
+                }
+            }
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package uia.cor;
 
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
@@ -9,6 +11,13 @@ import org.apache.logging.log4j.Logger;
 /**
  * The Yield control object.
  *
+ * <p>
+ * A buffered yield lets the iterable program run ahead and fill a ring of values,
+ * the generator drains the ring without passing the control back until it is empty.
+ * Use it for pure data iterations which don't depend on the generator side.
+ * The errors reported by the generator are delivered to the iterable program after the ring is drained.
+ * </p>
+ *
  * @author Kan
  *
  * @param <T> The data type exchanges to the generator.
@@ -17,20 +26,43 @@ public class Yield<T> {
 
     private static final Logger logger = LogManager.getLogger(Yield.class);
 
-    private String id;
+    private static final AtomicLong SEQ = new AtomicLong();
+
+    private final String id;
 
     private T value;
 
-    private boolean closed;
+    private volatile boolean closed;
+
+    private volatile boolean started;
+
+    private volatile boolean done;
 
     private Exception error;
 
-    private final Consumer<Yield<T>> iterable;
+    private Consumer<Yield<T>> iterable;
+
+    private final Carrier carrier;
+
+    private final Handoff handoff;
+
+    private final Object[] ring;
+
+    private int head;
 
-    private Yield(String id, Consumer<Yield<T>> iterable) {
-        this.id = id;
+    private int count;
+
+    private boolean last;
+
+    private Yield(String id, Carrier carrier, int bufferSize, Consumer<Yield<T>> iterable) {
+        this.id = id == null ? "yield-" + SEQ.incrementAndGet() : id;
         this.iterable = iterable;
+        this.carrier = carrier;
+        this.handoff = new Handoff();
+        this.ring = bufferSize > 1 ? new Object[bufferSize] : null;
         this.closed = false;
+        this.started = false;
+        this.done = false;
     }
 
     /**
@@ -53,18 +85,48 @@ public class Yield<T> {
      * @return The generator.
      */
     public static <T> Generator<T> accept(String yieldId, Consumer<Yield<T>> iterable) {
-        final Yield<T> yield = new Yield<>(yieldId, iterable);
-        synchronized (yield) {
-            Thread th = new Thread(yield::running);
-            th.setPriority(Thread.MAX_PRIORITY);
-            th.start();
-            try {
-                yield.wait(1000);
-            }
-            catch (Exception e) {
+        return accept(yieldId, Carriers.getDefault(), iterable);
+    }
 
-            }
-        }
+    /**
+     * Creates a Yield-Generator pair.
+     *
+     * @param <T> The data type exchanges to the generator.
+     * @param yieldId The yield id.
+     * @param carrier The carrier to start the thread of the iterable program.
+     * @param iterable The iterable program.
+     * @return The generator.
+     */
+    public static <T> Generator<T> accept(String yieldId, Carrier carrier, Consumer<Yield<T>> iterable) {
+        return accept(yieldId, carrier, 1, iterable);
+    }
+
+    /**
+     * Creates a buffered Yield-Generator pair.
+     *
+     * @param <T> The data type exchanges to the generator.
+     * @param yieldId The yield id.
+     * @param bufferSize The number of values the iterable program runs ahead. 1 means not buffered.
+     * @param iterable The iterable program.
+     * @return The generator.
+     */
+    public static <T> Generator<T> accept(String yieldId, int bufferSize, Consumer<Yield<T>> iterable) {
+        return accept(yieldId, Carriers.getDefault(), bufferSize, iterable);
+    }
+
+    /**
+     * Creates a buffered Yield-Generator pair.
+     *
+     * @param <T> The data type exchanges to the generator.
+     * @param yieldId The yield id.
+     * @param carrier The carrier to start the thread of the iterable program.
+     * @param bufferSize The number of values the iterable program runs ahead. 1 means not buffered.
+     * @param iterable The iterable program.
+     * @return The generator.
+     */
+    public static <T> Generator<T> accept(String yieldId, Carrier carrier, int bufferSize, Consumer<Yield<T>> iterable) {
+        // the thread is started by the first next().
+        final Yield<T> yield = new Yield<>(yieldId, carrier, bufferSize, iterable);
         return new Generator<>(yield);
     }
 
@@ -91,6 +153,19 @@ public class Yield<T> {
         return accept(yieldId, yieldable::bind);
     }
 
+    /**
+     * Creates a Yield-Generator pair.
+     *
+     * @param <T> The data type exchanges to the generator.
+     * @param yieldId The yield id.
+     * @param carrier The carrier to start the thread of the iterable program.
+     * @param yieldable The iterable program.
+     * @return The generator.
+     */
+    public static <T> Generator<T> accept(String yieldId, Carrier carrier, Yieldable<T> yieldable) {
+        return accept(yieldId, carrier, yieldable::bind);
+    }
+
     /**
      * Returns the id.
      *
@@ -100,6 +175,15 @@ public class Yield<T> {
         return this.id;
     }
 
+    /**
+     * Returns the number of values the iterable program runs ahead.
+     *
+     * @return The buffer size. 1 means not buffered.
+     */
+    public int getBufferSize() {
+        return this.ring == null ? 1 : this.ring.length;
+    }
+
     /**
      * Reports a error.
      *
@@ -119,19 +203,30 @@ public class Yield<T> {
      * @return True if there is a next iteration.
      */
     public boolean next(boolean stopIteration) {
+        if (this.count > 0) {
+            if (!stopIteration) {
+                return poll();	// drains the ring without handoff.
+            }
+            clear();
+        }
         if (this.closed) {
             return false;
         }
-        this.closed = stopIteration;
-        synchronized (this) {
-            this.notifyAll();
-            logger.debug(String.format("%s> next() is blocking, waiting call() to notify", this.id));
-            try {
-                this.wait();
-            }
-            catch (Exception e) {
-
+        if (!this.started) {
+            if (stopIteration) {
+                // never started, no thread is required to stop it.
+                this.closed = true;
+                this.done = true;
+                this.iterable = null;
+                return false;
             }
+            this.started = true;
+            this.carrier.start(this.id, this::running);
+        }
+        this.closed = stopIteration;
+        this.handoff.toProducer();
+        if (this.count > 0) {
+            return poll();
         }
         return !this.closed;
     }
@@ -147,19 +242,7 @@ public class Yield<T> {
             throw new YieldException("The yield is closed");
         }
 
-        synchronized (this) {
-            this.value = value;
-            this.notifyAll();
-            try {
-                logger.debug(String.format("%s> call(v) is blocking, waiting next() to release", this.id));
-                this.wait();
-            }
-            catch (Exception ex) {
-
-            }
-        }
-
-        testError();
+        submit(value);
     }
 
     /**
@@ -173,23 +256,13 @@ public class Yield<T> {
             throw new YieldException("The yield is closed");
         }
 
-        synchronized (this) {
-            this.value = supplier.get();
-            this.notifyAll();
-            try {
-                logger.debug(String.format("%s> call(s) is blocking, waiting next() to release", this.id));
-                this.wait();
-            }
-            catch (Exception ex) {
-
-            }
-        }
-
-        testError();
+        submit(supplier.get());
     }
 
     /**
-     * Submit the last value to the paired generator.
+     * Submit the last value to the paired generator.<br>
+     *
+     * <p>The iteration is closed, the generator gets the control back when the iterable program returns.
      *
      * @param value The last value.
      * @throws YieldException Something wrong.
@@ -199,16 +272,16 @@ public class Yield<T> {
             throw new YieldException("The yield is closed");
         }
 
-        synchronized (this) {
-            this.value = value;
-            this.notifyAll();
-            logger.debug(String.format("%s> callLast(v) notify next() to get new value", this.id));
+        submitLast(value);
+        if (logger.isDebugEnabled()) {
+            logger.debug(String.format("%s> callLast(v)", this.id));
         }
-        this.closed = true;
     }
 
     /**
-     * Submit the last value to the paired generator.
+     * Submit the last value to the paired generator.<br>
+     *
+     * <p>The iteration is closed, the generator gets the control back when the iterable program returns.
      *
      * @param supplier The function to get the last value..
      * @throws YieldException Something wrong.
@@ -218,12 +291,10 @@ public class Yield<T> {
             throw new YieldException("The yield is closed");
         }
 
-        synchronized (this) {
-            this.value = supplier.get();
-            this.notifyAll();
-            logger.debug(String.format("%s> callLast(s) notify next() to get new value", this.id));
+        submitLast(supplier.get());
+        if (logger.isDebugEnabled()) {
+            logger.debug(String.format("%s> callLast(s)", this.id));
         }
-        this.closed = true;
     }
 
     /**
@@ -231,7 +302,7 @@ public class Yield<T> {
      *
      * @return The current value.
      */
-    public synchronized T getValue() {
+    public T getValue() {
         return this.value;
     }
 
@@ -239,10 +310,12 @@ public class Yield<T> {
      * Closes the iteration .
      *
      */
-    public synchronized void close() {
+    public void close() {
         this.closed = true;
-        logger.debug(String.format("%s> close()", this.id));
-        this.notifyAll();
+        if (logger.isDebugEnabled()) {
+            logger.debug(String.format("%s> close()", this.id));
+        }
+        windDown();
     }
 
     /**
@@ -250,11 +323,13 @@ public class Yield<T> {
      *
      * @param cause The cause to close the iteration.
      */
-    public synchronized void close(InterruptedException cause) {
+    public void close(InterruptedException cause) {
         this.closed = true;
         this.error = cause;
-        logger.debug(String.format("%s> close(%s)", this.id, cause.getMessage()));
-        this.notifyAll();
+        if (logger.isDebugEnabled()) {
+            logger.debug(String.format("%s> close(%s)", this.id, cause.getMessage()));
+        }
+        windDown();
     }
 
     /**
@@ -262,7 +337,7 @@ public class Yield<T> {
      *
      * @return True if the iteration is alive.
      */
-    public synchronized boolean isAlive() {
+    public boolean isAlive() {
         return !isClosed();
     }
 
@@ -271,26 +346,17 @@ public class Yield<T> {
      *
      * @return True if the iteration is closed.
      */
-    public synchronized boolean isClosed() {
+    public boolean isClosed() {
         return this.closed;
     }
 
     private void running() {
+        Carriers.enter();
         try {
-            if (this.id == null) {
-                this.id = "yield-" + Thread.currentThread().getId();
-            }
-
-            synchronized (this) {
-                try {
-                    logger.debug(String.format("%s> running()", this.id));
-                    this.notifyAll();
-                    this.wait();
-                }
-                catch (Exception ex) {
-
-                }
+            if (logger.isDebugEnabled()) {
+                logger.debug(String.format("%s> running()", this.id));
             }
+            this.handoff.start();
             this.iterable.accept(this);	// blocking
         }
         catch (Exception ex) {
@@ -300,9 +366,82 @@ public class Yield<T> {
             logger.error(String.format("%s> ruuning() failed", this.id), ex);
         }
         finally {
-            logger.debug(String.format("%s> ruuning() done", this.id));
-            close();
+            if (logger.isDebugEnabled()) {
+                logger.debug(String.format("%s> ruuning() done", this.id));
+            }
+            this.closed = true;
+            this.done = true;
+            this.iterable = null;
+            Carriers.exit();
+            this.handoff.finish();
+        }
+    }
+
+    /**
+     * Lets the iteration run to the end if the yield is closed outside the iterable program.
+     *
+     */
+    private void windDown() {
+        if (this.done || this.handoff.isProducer(Thread.currentThread())) {
+            return;
+        }
+        clear();
+        if (!this.started) {
+            this.done = true;
+            this.iterable = null;
+            return;
+        }
+        this.handoff.toProducer();
+    }
+
+    private void submit(T value) throws YieldException {
+        if (this.ring == null) {
+            this.value = value;
+            this.handoff.toConsumer();
+        }
+        else {
+            offer(value);
+            if (this.count == this.ring.length) {
+                // the ring is full, the generator drains it before passing the control back.
+                this.handoff.toConsumer();
+            }
+        }
+        testError();
+    }
+
+    private void submitLast(T value) {
+        if (this.ring == null) {
+            this.value = value;
+        }
+        else {
+            offer(value);
+            this.last = true;
+        }
+        this.closed = true;
+    }
+
+    private void offer(T value) {
+        this.ring[(this.head + this.count) % this.ring.length] = value;
+        this.count++;
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean poll() {
+        this.value = (T) this.ring[this.head];
+        this.ring[this.head] = null;
+        this.head = (this.head + 1) % this.ring.length;
+        this.count--;
+        // same as not buffered, the last value is returned with false.
+        return this.count > 0 || !this.last;
+    }
+
+    private void clear() {
+        if (this.ring != null) {
+            Arrays.fill(this.ring, null);
         }
+        this.head = 0;
+        this.count = 0;
+        this.last = false;
     }
 
     private void testError() throws YieldException {
@@ -1,5 +1,6 @@
 package uia.cor;
 
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
@@ -18,15 +19,25 @@ public class Yield2Way<T, R> {
 
     private static final Logger logger = LogManager.getLogger(Yield2Way.class);
 
-    private String id;
+    private static final AtomicLong SEQ = new AtomicLong();
+
+    private final String id;
 
     private T value;
 
-    private boolean closed;
+    private volatile boolean closed;
+
+    private volatile boolean started;
+
+    private volatile boolean done;
 
     private Exception error;
 
-    private final Consumer<Yield2Way<T, R>> iterable;
+    private Consumer<Yield2Way<T, R>> iterable;
+
+    private final Carrier carrier;
+
+    private final Handoff handoff;
 
     private R callResult;
 
@@ -38,10 +49,14 @@ public class Yield2Way<T, R> {
      * @param iterable The iterable program.
      * @return The generator.
      */
-    private Yield2Way(String id, Consumer<Yield2Way<T, R>> iterable) {
-        this.id = id;
+    private Yield2Way(String id, Carrier carrier, Consumer<Yield2Way<T, R>> iterable) {
+        this.id = id == null ? "yield-" + SEQ.incrementAndGet() : id;
         this.iterable = iterable;
+        this.carrier = carrier;
+        this.handoff = new Handoff();
         this.closed = false;
+        this.started = false;
+        this.done = false;
     }
 
     /**
@@ -66,18 +81,22 @@ public class Yield2Way<T, R> {
      * @return The generator.
      */
     public static <T, R> Generator2Way<T, R> accept(String yieldId, Consumer<Yield2Way<T, R>> iterable) {
-        final Yield2Way<T, R> yield = new Yield2Way<>(yieldId, iterable);
-        synchronized (yield) {
-            Thread th = new Thread(yield::running);
-            th.setPriority(Thread.MAX_PRIORITY);
-            th.start();
-            try {
-                yield.wait(1000);
-            }
-            catch (Exception e) {
+        return accept(yieldId, Carriers.getDefault(), iterable);
+    }
 
-            }
-        }
+    /**
+     * Creates a Yield-Generator pair.
+     *
+     * @param <T> The data type exchanges to the generator.
+     * @param <R> The data type the generator sends back.
+     * @param yieldId The yield id.
+     * @param carrier The carrier to start the thread of the iterable program.
+     * @param iterable The iterable program.
+     * @return The generator.
+     */
+    public static <T, R> Generator2Way<T, R> accept(String yieldId, Carrier carrier, Consumer<Yield2Way<T, R>> iterable) {
+        // the thread is started by the first next().
+        final Yield2Way<T, R> yield = new Yield2Way<>(yieldId, carrier, iterable);
         return new Generator2Way<>(yield);
     }
 
@@ -106,6 +125,20 @@ public class Yield2Way<T, R> {
         return accept(yieldId, yieldable::bind);
     }
 
+    /**
+     * Creates a Yield-Generator pair.
+     *
+     * @param <T> The data type exchanges to the generator.
+     * @param <R> The data type the generator sends back.
+     * @param yieldId The yield id.
+     * @param carrier The carrier to start the thread of the iterable program.
+     * @param yieldable The iterable program.
+     * @return The generator.
+     */
+    public static <T, R> Generator2Way<T, R> accept(String yieldId, Carrier carrier, Yieldable2Way<T, R> yieldable) {
+        return accept(yieldId, carrier, yieldable::bind);
+    }
+
     /**
      * Returns the id.
      *
@@ -120,7 +153,7 @@ public class Yield2Way<T, R> {
      *
      * @param callResult The result for call().
      */
-    public synchronized void send(R callResult) {
+    public void send(R callResult) {
         if (this.closed) {
             return;
         }
@@ -151,17 +184,19 @@ public class Yield2Way<T, R> {
         if (this.closed) {
             return false;
         }
-        this.closed = stopIteration;
-        synchronized (this) {
-            this.notifyAll();
-            logger.debug(String.format("%s> next() is blocking, waiting call() to notify", this.id));
-            try {
-                this.wait();
-            }
-            catch (Exception e) {
-
+        if (!this.started) {
+            if (stopIteration) {
+                // never started, no thread is required to stop it.
+                this.closed = true;
+                this.done = true;
+                this.iterable = null;
+                return false;
             }
+            this.started = true;
+            this.carrier.start(this.id, this::running);
         }
+        this.closed = stopIteration;
+        this.handoff.toProducer();
         return !this.closed;
     }
 
@@ -179,17 +214,8 @@ public class Yield2Way<T, R> {
             throw new YieldException("The yield is closed");
         }
 
-        synchronized (this) {
-            this.value = value;
-            this.notifyAll();
-            try {
-                logger.debug(String.format("%s> call(v) is blocking, waiting send() to release", this.id));
-                this.wait();
-            }
-            catch (Exception ex) {
-
-            }
-        }
+        this.value = value;
+        this.handoff.toConsumer();
 
         testError();
         return this.callResult;
@@ -209,17 +235,8 @@ public class Yield2Way<T, R> {
             throw new YieldException("The yield is closed");
         }
 
-        synchronized (this) {
-            this.value = supplier.get();
-            this.notifyAll();
-            try {
-                logger.debug(String.format("%s> call(s) is blocking, waiting send() to release", this.id));
-                this.wait();
-            }
-            catch (Exception ex) {
-
-            }
-        }
+        this.value = supplier.get();
+        this.handoff.toConsumer();
 
         testError();
         return this.callResult;
@@ -239,7 +256,7 @@ public class Yield2Way<T, R> {
      *
      * @return The current value.
      */
-    public synchronized T getValue() {
+    public T getValue() {
         return this.value;
     }
 
@@ -247,10 +264,12 @@ public class Yield2Way<T, R> {
      * Closes the iteration .
      *
      */
-    public synchronized void close() {
+    public void close() {
         this.closed = true;
-        logger.debug(String.format("%s> close()", this.id));
-        this.notifyAll();
+        if (logger.isDebugEnabled()) {
+            logger.debug(String.format("%s> close()", this.id));
+        }
+        windDown();
     }
 
     /**
@@ -258,12 +277,13 @@ public class Yield2Way<T, R> {
      *
      * @param result The final result.
      */
-    public synchronized void close(R result) {
+    public void close(R result) {
         this.closed = true;
-        // this.callResult = result;
         this.finalResult = result;
-        logger.debug(String.format("%s> close(%s)", this.id, result));
-        this.notifyAll();
+        if (logger.isDebugEnabled()) {
+            logger.debug(String.format("%s> close(%s)", this.id, result));
+        }
+        windDown();
     }
 
     /**
@@ -271,11 +291,13 @@ public class Yield2Way<T, R> {
      *
      * @param cause The cause to close the iteration.
      */
-    public synchronized void close(InterruptedException cause) {
+    public void close(InterruptedException cause) {
         this.closed = true;
         this.error = cause;
-        logger.debug(String.format("%s> close()", this.id));
-        this.notifyAll();
+        if (logger.isDebugEnabled()) {
+            logger.debug(String.format("%s> close()", this.id));
+        }
+        windDown();
     }
 
     /**
@@ -283,7 +305,7 @@ public class Yield2Way<T, R> {
      *
      * @return True if the iteration is alive.
      */
-    public synchronized boolean isAlive() {
+    public boolean isAlive() {
         return !isClosed();
     }
 
@@ -292,35 +314,48 @@ public class Yield2Way<T, R> {
      *
      * @return True if the iteration is closed.
      */
-    public synchronized boolean isClosed() {
+    public boolean isClosed() {
         return this.closed;
     }
 
     private void running() {
+        Carriers.enter();
         try {
-            if (this.id == null) {
-                this.id = "yield-" + Thread.currentThread().getId();
-            }
-
-            synchronized (this) {
-                try {
-                    logger.debug(String.format("%s> running()", this.id));
-                    this.notifyAll();
-                    this.wait();
-                }
-                catch (Exception ex) {
-
-                }
+            if (logger.isDebugEnabled()) {
+                logger.debug(String.format("%s> running()", this.id));
             }
+            this.handoff.start();
             this.iterable.accept(this);	// block until finishing iteration.
         }
         catch (Exception ex) {
             logger.error(String.format("%s> ruuning() failed, %s", this.id, ex.getMessage()), ex);
         }
         finally {
-            logger.debug(String.format("%s> ruuning() done", this.id));
-            close();
+            if (logger.isDebugEnabled()) {
+                logger.debug(String.format("%s> ruuning() done", this.id));
+            }
+            this.closed = true;
+            this.done = true;
+            this.iterable = null;
+            Carriers.exit();
+            this.handoff.finish();
+        }
+    }
+
+    /**
+     * Lets the iteration run to the end if the yield is closed outside the iterable program.
+     *
+     */
+    private void windDown() {
+        if (this.done || this.handoff.isProducer(Thread.currentThread())) {
+            return;
+        }
+        if (!this.started) {
+            this.done = true;
+            this.iterable = null;
+            return;
         }
+        this.handoff.toProducer();
     }
 
     private void testError() throws YieldException {
@@ -0,0 +1,54 @@
+package uia.sim;
+
+import uia.sim.Event.PriorityType;
+
+/**
+ * The external source of arrivals sorted by time, e.g. the records of a historical dispatch log.<br>
+ *
+ * <p>
+ * The environment keeps only the next arrival in the event queue, see Env.arrivals().
+ * The built-in implementations are in the package <b>uia.sim.arrivals</b>.
+ * </p>
+ *
+ * @author Kan
+ *
+ */
+public interface ArrivalSource extends AutoCloseable {
+
+    /**
+     * Moves to the next arrival.
+     *
+     * @return False if there is no more arrival.
+     */
+    public boolean next();
+
+    /**
+     * Returns the time of the current arrival.
+     *
+     * @return The time.
+     */
+    public long getTime();
+
+    /**
+     * Returns the priority of the current arrival.
+     *
+     * @return The priority.
+     */
+    public default PriorityType getPriority() {
+        return PriorityType.NORMAL;
+    }
+
+    /**
+     * Returns the value of the current arrival.
+     *
+     * @return The value.
+     */
+    public Object getValue();
+
+    /**
+     * Closes the source.
+     *
+     */
+    @Override
+    public void close();
+}
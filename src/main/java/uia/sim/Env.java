@@ -2,24 +2,30 @@ package uia.sim;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.UUID;
+import java.util.Collection;
+import java.util.List;
+import java.util.PriorityQueue;
 import java.util.Vector;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.PriorityBlockingQueue;
 import java.util.function.Consumer;
-import java.util.function.Supplier;
+import java.util.function.Function;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import uia.cor.Carrier;
+import uia.cor.Carriers;
 import uia.cor.Yield2Way;
 import uia.cor.Yieldable2Way;
 import uia.sim.Event.PriorityType;
 import uia.sim.events.AllOf;
 import uia.sim.events.AnyOf;
 import uia.sim.events.Process;
+import uia.sim.events.Signal;
+import uia.sim.events.StepProcess;
 import uia.sim.events.Timeout;
+import uia.sim.queues.FastLaneQueue;
 
 /**
  * The simulation environment.<br>
@@ -45,19 +51,22 @@ import uia.sim.events.Timeout;
  */
 public class Env {
 
-    public static boolean DEBUG = true;
+    /**
+     * Dumps the event queue on each schedule with LogTracer.
+     */
+    public static boolean DEBUG = false;
 
     private static final Logger logger = LogManager.getLogger(Env.class);
 
     private final String id;
 
-    private int seqNo;
+    private long seqNo;
 
     protected int initialTime;
 
-    protected PriorityBlockingQueue<Job> jobs;
+    protected EventQueue jobs;
 
-    private int now;
+    private long now;
 
     private Process activeProcess;
 
@@ -69,9 +78,31 @@ public class Env {
 
     private int checkPoint;
 
-    static {
-        UUID.randomUUID();
-    }
+    private int cancelledJobs;
+
+    private int compactThreshold;
+
+    private Carrier carrier;
+
+    private Tracer tracer;
+
+    private long stackSize;
+
+    private boolean singleThreaded;
+
+    private boolean confined;
+
+    private Thread owner;
+
+    private EventPool pool;
+
+    private Task soonHead;
+
+    private Task soonTail;
+
+    private final PriorityQueue<Task> laterTasks;
+
+    private Task freeTasks;
 
     /**
      * The constructor.
@@ -105,14 +136,30 @@ public class Env {
      * @param initialTime The initial time.
      */
     public Env(String id, int initialTime) {
+        this(id, initialTime, new FastLaneQueue());
+    }
+
+    /**
+     * The constructor.
+     *
+     * @param id The environment id.
+     * @param initialTime The initial time.
+     * @param queue The event queue.
+     */
+    public Env(String id, int initialTime, EventQueue queue) {
+        if (queue == null || !queue.isEmpty()) {
+            throw new IllegalArgumentException("queue must be an empty queue");
+        }
         this.id = id;
-        this.jobs = new PriorityBlockingQueue<>();
+        this.jobs = queue;
+        this.laterTasks = new PriorityQueue<>();
         this.executor = Executors.newFixedThreadPool(1);
         this.listener = new EnvListenerAdapter();
         this.now = Math.max(0, initialTime);
-        this.initialTime = this.now;
+        this.initialTime = Math.max(0, initialTime);
         this.parallel = false;
         this.checkPoint = 5000;
+        this.compactThreshold = 4096;
     }
 
     /**
@@ -137,9 +184,219 @@ public class Env {
     }
 
     public void setParallel(boolean parallel) {
+        if (parallel && this.singleThreaded) {
+            throw new IllegalStateException(this.id + " is single-threaded");
+        }
+        if (parallel && this.pool != null) {
+            throw new IllegalStateException(this.id + " uses the event pool");
+        }
         this.parallel = parallel;
     }
 
+    /**
+     * Tests if the environment is single-threaded.
+     *
+     * @return True if the environment is single-threaded.
+     */
+    public boolean isSingleThreaded() {
+        return this.singleThreaded;
+    }
+
+    /**
+     * Sets the environment single-threaded or not. Not single-threaded by default.<br>
+     *
+     * <p>
+     * A single-threaded environment, the events, the processes and the resources of it skip all the locks.
+     * The model must be built and run by one thread, only the processes resumed by the environment
+     * could access it, they run one at a time.
+     * The parallel mode is not single-threaded.
+     * </p>
+     *
+     * @param singleThreaded True if the environment is single-threaded.
+     */
+    public void setSingleThreaded(boolean singleThreaded) {
+        if (singleThreaded && this.parallel) {
+            throw new IllegalStateException(this.id + " is parallel");
+        }
+        this.singleThreaded = singleThreaded;
+    }
+
+    /**
+     * Tests if the thread confinement is checked.
+     *
+     * @return True if the thread confinement is checked.
+     */
+    public boolean isConfined() {
+        return this.confined;
+    }
+
+    /**
+     * Checks the thread confinement or not, for debugging.<br>
+     *
+     * <p>
+     * The owner is the thread invoking this method, then the thread invoking run().
+     * Creating or scheduling an event throws IllegalStateException if the thread is not the owner
+     * and no process is resumed by the environment.
+     * </p>
+     *
+     * @param confined True if the thread confinement is checked.
+     */
+    public void setConfined(boolean confined) {
+        this.confined = confined;
+        this.owner = confined ? Thread.currentThread() : null;
+    }
+
+    /**
+     * Returns the event pool.
+     *
+     * @return The event pool. Null if the events are not pooled.
+     */
+    public EventPool getPool() {
+        return this.pool;
+    }
+
+    /**
+     * Sets the event pool. The events are not pooled by default.<br>
+     *
+     * <p>
+     * The timeouts created by timeout(), the Initialize and Interruption events of the processes are reused.
+     * Pin the event if the model keeps it after processed. The parallel mode does not support the pool.
+     * </p>
+     *
+     * @param pool The event pool. Null if the events are not pooled.
+     */
+    public void setPool(EventPool pool) {
+        if (pool != null && this.parallel) {
+            throw new IllegalStateException(this.id + " is parallel");
+        }
+        this.pool = pool;
+    }
+
+    /**
+     * Returns the event queue.
+     *
+     * @return The event queue.
+     */
+    public EventQueue getQueue() {
+        return this.jobs;
+    }
+
+    /**
+     * Returns the number of cancelled jobs which the event queue is compacted after.
+     *
+     * @return The threshold.
+     */
+    public int getCompactThreshold() {
+        return this.compactThreshold;
+    }
+
+    /**
+     * Sets the number of cancelled jobs which the event queue is compacted after.<br>
+     * The queue is compacted only when the cancelled jobs are at least half of it.
+     *
+     * @param compactThreshold The threshold.
+     */
+    public void setCompactThreshold(int compactThreshold) {
+        this.compactThreshold = Math.max(compactThreshold, 1);
+    }
+
+    /**
+     * Returns the number of cancelled jobs in the event queue.
+     *
+     * @return The number of cancelled jobs.
+     */
+    public int getCancelledJobs() {
+        return this.cancelledJobs;
+    }
+
+    /**
+     * Removes the jobs of the cancelled events from the event queue.
+     *
+     * @return The number of removed jobs.
+     */
+    public int compact() {
+        int removed;
+        if (this.parallel) {
+            synchronized (this.jobs) {
+                removed = this.jobs.removeIf(j -> j.event.isCancelled());
+            }
+        }
+        else {
+            removed = this.jobs.removeIf(j -> j.event.isCancelled());
+        }
+        this.cancelledJobs = 0;
+        if (this.tracer != null) {
+            this.tracer.onCompact(this, removed);
+        }
+        return removed;
+    }
+
+    /**
+     * Returns the carrier used to start the threads of processes.
+     *
+     * @return The carrier. The global default if not specified.
+     */
+    public Carrier getCarrier() {
+        return this.carrier == null ? Carriers.getDefault() : this.carrier;
+    }
+
+    /**
+     * Sets the carrier used to start the threads of processes.
+     *
+     * @param carrier The carrier. Null means the global default.
+     */
+    public void setCarrier(Carrier carrier) {
+        this.carrier = carrier;
+    }
+
+    /**
+     * Returns the carrier used to start the threads of processes with the stack size hint.
+     *
+     * @param stackSize The stack size in bytes. 0 means the stack size of the environment.
+     * @return The carrier.
+     */
+    public Carrier getCarrier(long stackSize) {
+        return Carriers.withStackSize(getCarrier(), stackSize > 0 ? stackSize : this.stackSize);
+    }
+
+    /**
+     * Returns the stack size hint of the threads of processes.
+     *
+     * @return The stack size in bytes. 0 means the default of the JVM.
+     */
+    public long getStackSize() {
+        return this.stackSize;
+    }
+
+    /**
+     * Sets the stack size hint of the threads of processes.<br>
+     * The hint is applied to the processes created after.
+     *
+     * @param stackSize The stack size in bytes. 0 means the default of the JVM.
+     */
+    public void setStackSize(long stackSize) {
+        this.stackSize = Math.max(0, stackSize);
+    }
+
+    /**
+     * Returns the tracer.
+     *
+     * @return The tracer. Null if no tracer is installed.
+     */
+    public Tracer getTracer() {
+        return this.tracer;
+    }
+
+    /**
+     * Sets the tracer.<br>
+     * Nothing is traced by default, use LogTracer to write the log4j messages.
+     *
+     * @param tracer The tracer. Null means no tracer.
+     */
+    public void setTracer(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
     /**
      * Returns the listener.
      *
@@ -162,8 +419,18 @@ public class Env {
      * Returns the current time of the environment..
      *
      * @return The time.
+     * @throws ArithmeticException The time is out of the range of int, use getTime() instead.
      */
     public int getNow() {
+        return Math.toIntExact(this.now);
+    }
+
+    /**
+     * Returns the current time of the environment.
+     *
+     * @return The time.
+     */
+    public long getTime() {
         return this.now;
     }
 
@@ -213,6 +480,35 @@ public class Env {
         return new Process(this, id, taskRunner);
     }
 
+    /**
+     * Creates a new process event which starts after a delay.<br>
+     *
+     * <p>
+     * The thread of the process is not created until the process starts.
+     * </p>
+     *
+     * @param id The process id.
+     * @param delay The delay time to start the process.
+     * @param taskRunner A runner of the process tasks.
+     * @return A new process event.
+     */
+    public Process process(String id, long delay, Consumer<Yield2Way<Event, Object>> taskRunner) {
+        return new Process(this, id, getCarrier(0), delay, taskRunner);
+    }
+
+    /**
+     * Creates a new process event which starts after a delay and runs on a thread with the stack size hint.<br>
+     *
+     * @param id The process id.
+     * @param delay The delay time to start the process.
+     * @param stackSize The stack size in bytes. 0 means the stack size of the environment.
+     * @param taskRunner A runner of the process tasks.
+     * @return A new process event.
+     */
+    public Process process(String id, long delay, long stackSize, Consumer<Yield2Way<Event, Object>> taskRunner) {
+        return new Process(this, id, getCarrier(stackSize), delay, taskRunner);
+    }
+
     /**
      * Creates a new process event.<br>
      *
@@ -234,14 +530,51 @@ public class Env {
         return processable.bind(this);
     }
 
+    /**
+     * Creates a new process event which starts after a delay.<br>
+     *
+     * @param processable A runner of the process tasks.
+     * @param delay The delay time to start the process.
+     * @return A new process event.
+     */
+    public Process process(Processable processable, long delay) {
+        return processable.bind(this, delay);
+    }
+
+    /**
+     * Creates a new process event without a thread.<br>
+     *
+     * @param steppable A state machine of the process tasks.
+     * @return A new process event.
+     */
+    public Process process(Steppable steppable) {
+        return steppable.bind(this);
+    }
+
+    /**
+     * Creates a new process event without a thread.<br>
+     *
+     * <p>
+     * The <b>step</b> function gets the event which resumes the process and
+     * returns the next event to wait for, or null to terminate the process.
+     * </p>
+     *
+     * @param id The process id.
+     * @param step The step function of the process tasks.
+     * @return A new process event.
+     */
+    public Process stepProcess(String id, Function<Event, Event> step) {
+        return new StepProcess(this, id, step);
+    }
+
     /**
      * <b>Schedules</b> a new timeout event for processing by this environment.
      *
      * @param delay The delay time.
      * @return A new scheduled timeout event.
      */
-    public Timeout timeout(int delay) {
-        return new Timeout(this, "delay" + delay, delay);
+    public Timeout timeout(long delay) {
+        return Timeout.create(this, null, delay, null);
     }
 
     /**
@@ -251,8 +584,8 @@ public class Env {
      * @param value The value of the event.
      * @return A new scheduled timeout event.
      */
-    public Timeout timeout(int delay, Object value) {
-        return new Timeout(this, "delay" + delay, delay, value);
+    public Timeout timeout(long delay, Object value) {
+        return Timeout.create(this, null, delay, value);
     }
 
     /**
@@ -262,8 +595,8 @@ public class Env {
      * @param delay The delay time.
      * @return A new scheduled timeout event.
      */
-    public Timeout timeout(String id, int delay) {
-        return new Timeout(this, id, delay);
+    public Timeout timeout(String id, long delay) {
+        return Timeout.create(this, id, delay, null);
     }
 
     /**
@@ -274,8 +607,63 @@ public class Env {
      * @param value The value of the event.
      * @return A new scheduled timeout event.
      */
-    public Timeout timeout(String id, int delay, Object value) {
-        return new Timeout(this, id, delay, value);
+    public Timeout timeout(String id, long delay, Object value) {
+        return Timeout.create(this, id, delay, value);
+    }
+
+    /**
+     * <b>Schedules</b> new timeout events in bulk for processing by this environment.<br>
+     * The events are scheduled without logging one by one.
+     *
+     * @param id The event id.
+     * @param delays The delay time of the events.
+     * @return The new scheduled timeout events.
+     */
+    public List<Timeout> timeouts(String id, long... delays) {
+        ArrayList<Timeout> timeouts = new ArrayList<>(delays.length);
+        ArrayList<Job> jobs = new ArrayList<>(delays.length);
+        for (long delay : delays) {
+            Timeout timeout = new Timeout(this, id, delay, null, false);
+            timeouts.add(timeout);
+            jobs.add(new Job(timeout, PriorityType.NORMAL, this.now + delay));
+        }
+        scheduleAll(jobs);
+        return timeouts;
+    }
+
+    /**
+     * <b>Schedules</b> the arrivals from an external source.<br>
+     *
+     * <p>
+     * Only the next arrival is scheduled as an event, the value of the event is the value of the arrival.
+     * When the event is processed, the <b>handler</b> is invoked and then the following arrival is scheduled,
+     * the same as a process scheduling the arrivals one by one. The order of time, priority and sequence number
+     * is consistent with the other events. The source is closed when it is exhausted or the environment is down.
+     * </p>
+     *
+     * @param id The event id.
+     * @param source The source sorted by time.
+     * @param handler The handler of the arrival events.
+     */
+    public void arrivals(String id, ArrivalSource source, Consumer<Event> handler) {
+        if (!source.next()) {
+            source.close();
+            return;
+        }
+        if (source.getTime() < this.now) {
+            source.close();
+            throw new IllegalArgumentException(String.format("time(=%s) must be > the current simulation time.", source.getTime()));
+        }
+        Event event = new Event(this, id, source.getValue());
+        event.addCallable(e -> {
+            if (e.isEnvDown()) {
+                source.close();
+                return;
+            }
+            handler.accept(e);
+            arrivals(id, source, handler);
+        });
+        schedule(event, source.getPriority(), source.getTime() - this.now);
     }
 
     /**
@@ -288,6 +676,37 @@ public class Env {
         return new Event(this, id);
     }
 
+    /**
+     * Creates a new re-armable event.
+     *
+     * @param id The event id.
+     * @return A new signal.
+     */
+    public Signal signal(String id) {
+        return new Signal(this, id);
+    }
+
+    /**
+     * <b>Schedules</b> a new periodic signal processed every <b>period</b> until it is cancelled.
+     *
+     * @param period The period.
+     * @return A new periodic signal.
+     */
+    public Signal every(long period) {
+        return new Signal(this, "every" + period, period);
+    }
+
+    /**
+     * <b>Schedules</b> a new periodic signal processed every <b>period</b> until it is cancelled.
+     *
+     * @param id The event id.
+     * @param period The period.
+     * @return A new periodic signal.
+     */
+    public Signal every(String id, long period) {
+        return new Signal(this, id, period);
+    }
+
     /**
      * Creates a new event instance.
      *
@@ -318,27 +737,122 @@ public class Env {
      * @param priority The priority.
      * @param runnable The job.
      */
-    public void schedule(String id, int time, Event.PriorityType priority, Runnable runnable) {
+    public void schedule(String id, long time, Event.PriorityType priority, Runnable runnable) {
         if (time < this.now) {
             throw new IllegalArgumentException(String.format("time(=%s) must be > the current simulation time.", time));
         }
         Event event = new Event(this, id);
         event.addCallable(e -> runnable.run());
         Job job = new Job(event, priority, time);
-        this.jobs.add(job);
-        logger.info(String.format("%4d> %s>  sch> %s,uid=%s at %s",
-                getNow(),
-                this.id,
-                job.event,
-                job.event.seqNo,
-                job.time));
-        if (DEBUG) {
-            ArrayList<String> order = new ArrayList<>();
-            this.jobs.forEach(j -> order.add(j.toString()));
-            logger.info(String.format("%4d> %s> jobs = %s",
-                    getNow(),
-                    this.id,
-                    order));
+        addJob(job);
+        if (this.tracer != null) {
+            this.tracer.onSchedule(this, job);
+        }
+    }
+
+    /**
+     * Runs the <b>runnable</b> at the current time after the current callback, without creating an event.<br>
+     *
+     * <p>
+     * The order is the same as schedule(id, getTime(), PriorityType.NORMAL, runnable), the runnable runs after the
+     * events scheduled at the current time before it. In the parallel mode, the runnable is scheduled as an event.
+     * </p>
+     *
+     * @param runnable The job.
+     */
+    public void callSoon(Runnable runnable) {
+        callAt(this.now, PriorityType.NORMAL, runnable);
+    }
+
+    /**
+     * Runs the <b>runnable</b> at the <b>time</b> without creating an event.<br>
+     *
+     * <p>
+     * The order is the same as schedule(id, time, priority, runnable). The runnable is not cancellable and is dropped
+     * if the environment stops before the time. In the parallel mode, the runnable is scheduled as an event.
+     * </p>
+     *
+     * @param time The time.
+     * @param priority The priority.
+     * @param runnable The job.
+     */
+    public void callAt(long time, Event.PriorityType priority, Runnable runnable) {
+        if (time < this.now) {
+            throw new IllegalArgumentException(String.format("time(=%s) must be > the current simulation time.", time));
+        }
+        if (this.parallel) {
+            schedule("callAt", time, priority, runnable);
+            return;
+        }
+
+        Task task = this.freeTasks;
+        if (task == null) {
+            task = new Task();
+        }
+        else {
+            this.freeTasks = task.next;
+            task.next = null;
+        }
+        task.time = time;
+        task.rank = Job.rank(priority, genSeq());
+        task.runnable = runnable;
+        if (time == this.now && priority == PriorityType.NORMAL) {
+            // the time and the sequence number never go back, the tasks of the current time keep the order.
+            if (this.soonTail == null) {
+                this.soonHead = task;
+            }
+            else {
+                this.soonTail.next = task;
+            }
+            this.soonTail = task;
+        }
+        else {
+            this.laterTasks.add(task);
+        }
+    }
+
+    /**
+     * Adds the jobs in the environment in bulk.<br>
+     * The jobs are added to the event queue at once and logged once, it is much faster than scheduling them one by one
+     * to load a large number of known events. The jobs of the cancelled events are not added.
+     *
+     * @param jobs The jobs.
+     */
+    public void scheduleAll(Collection<Job> jobs) {
+        if (this.confined) {
+            checkThread();
+        }
+        int cancelled = 0;
+        for (Job job : jobs) {
+            if (job.time < this.now) {
+                throw new IllegalArgumentException(String.format("time(=%s) of %s must be > the current simulation time.", job.time, job.event));
+            }
+            if (job.event.isCancelled()) {
+                cancelled++;
+            }
+        }
+        if (cancelled > 0) {
+            ArrayList<Job> kept = new ArrayList<>(jobs.size() - cancelled);
+            for (Job job : jobs) {
+                if (!job.event.isCancelled()) {
+                    kept.add(job);
+                }
+            }
+            jobs = kept;
+        }
+        for (Job job : jobs) {
+            job.event.queued();
+        }
+        if (this.parallel) {
+            synchronized (this.jobs) {
+                this.jobs.addAll(jobs);
+            }
+        }
+        else {
+            this.jobs.addAll(jobs);
+        }
+        if (this.tracer != null) {
+            this.tracer.onScheduleAll(this, jobs);
         }
     }
 
@@ -353,58 +867,52 @@ public class Env {
     }
 
     /**
-     * Adds a schedule in the environment.
+     * Adds a schedule in the environment.<br>
+     * A cancelled event is not scheduled.
      *
      * @param event The event.
      * @param priority The priority.
      * @param delay The delay time.
      */
-    public void schedule(Event event, Event.PriorityType priority, int delay) {
+    public void schedule(Event event, Event.PriorityType priority, long delay) {
+        if (event.isCancelled()) {
+            // the job would be skipped, nothing is left in the event queue.
+            return;
+        }
         Job job = new Job(event, priority, this.now + delay);
-        this.jobs.add(job);
-        logger.info(String.format("%4d> %s>  sch> %s,uid=%s at %s",
-                getNow(),
-                this.id,
-                job.event,
-                job.event.seqNo,
-                job.time));
-        if (DEBUG) {
-            logger.info(String.format("%4d> %s> jobs = %s",
-                    getNow(),
-                    this.id,
-                    this.jobs));
+        addJob(job);
+        if (this.tracer != null) {
+            this.tracer.onSchedule(this, job);
         }
     }
 
     /**
      * Runs the environment.
      *
-     * @return Stop time.
+     * @return Stop time. Integer.MAX_VALUE if the time is out of the range of int, use getTime() instead.
      */
     public synchronized int run() {
+        return toInt(runAll());
+    }
+
+    /**
+     * Executes events until the given criterion until is met.
+     *
+     * @param until The end time.
+     * @return Stop time.
+     */
+    public synchronized int run(final int until) {
+        return toInt(run((long) until));
+    }
+
+    private long runAll() {
         logger.debug("==== start ====");
         logger.debug("parallel:" + this.parallel);
-        long c = 0;
-        Supplier<Integer> step = this.parallel
-                ? this::stepParallel
-                : this::stepOne;
-        try {
-            long check = this.checkPoint;
-            while (!this.jobs.isEmpty()) {
-                c += step.get();
-                if (c >= check) {
-                    raiseRunning(this.now, c + " steps");
-                    check += this.checkPoint;
-                }
-            }
-            raiseDone(this.now, c + " steps");
-            logger.debug("==== end ====");
-        }
-        catch (Throwable ex) {
-            raiseDone(this.now, c + " steps, throw " + ex.getMessage());
-            logger.debug(String.format("==== end(%s) ====", ex.getMessage()));
+        if (this.confined) {
+            this.owner = Thread.currentThread();
         }
-
+        loop(Long.MAX_VALUE, Long.MAX_VALUE);
+        clearTasks();
         while (!this.jobs.isEmpty()) {
             this.jobs.poll().event.envDown();
         }
@@ -419,35 +927,20 @@ public class Env {
      * @param until The end time.
      * @return Stop time.
      */
-    public synchronized int run(final int until) {
+    public synchronized long run(final long until) {
         if (until < this.now) {
             throw new IllegalArgumentException(String.format("until(=%s) must be > the current simulation time.", until));
         }
-        Event stopEvent = event("stop");
-        stopEvent.addCallable(this::stopSim);
-        schedule(stopEvent, PriorityType.URGENT, until - this.now);
 
         logger.info("==== start ====");
-        long c = 0;
-        Supplier<Integer> step = this.parallel
-                ? this::stepParallel
-                : this::stepOne;
-        try {
-            long check = this.checkPoint;
-            while (this.now < until && !this.jobs.isEmpty()) {
-                c += step.get();
-                if (c >= check) {
-                    raiseRunning(this.now, c + " steps");
-                    check += this.checkPoint;
-                }
-            }
-            raiseDone(this.now, c + " steps");
-            logger.info("==== end ====");
+        if (this.confined) {
+            this.owner = Thread.currentThread();
         }
-        catch (Throwable ex) {
-            raiseDone(this.now, c + " steps, throw " + ex.getMessage());
-            logger.debug(String.format("==== end(%s) ====", ex.getMessage()));
+        // the job stopping the simulation, only the key is used.
+        if (loop(until, Job.rank(PriorityType.URGENT, genSeq()))) {
+            this.now = until;
         }
+        clearTasks();
 
         while (!this.jobs.isEmpty()) {
             try {
@@ -466,6 +959,7 @@ public class Env {
     }
 
     public void stop() {
+        clearTasks();
         while (!this.jobs.isEmpty()) {
             try {
                 this.jobs.poll().event.envDown();
@@ -501,23 +995,112 @@ public class Env {
      *
      * @return The sequence number.
      */
-    protected int genSeq() {
+    protected long genSeq() {
+        if (this.confined) {
+            checkThread();
+        }
+        if (this.singleThreaded) {
+            return ++this.seqNo;
+        }
         synchronized (this.jobs) {
             return ++this.seqNo;
         }
     }
 
+    /**
+     * Notifies a scheduled event is cancelled.
+     *
+     * @param event The cancelled event.
+     */
+    void cancelled(Event event) {
+        this.cancelledJobs++;
+        if (this.cancelledJobs >= this.compactThreshold && 2 * this.cancelledJobs >= this.jobs.size()) {
+            compact();
+        }
+    }
+
+    private void addJob(Job job) {
+        if (this.confined) {
+            checkThread();
+        }
+        job.event.queued();
+        if (this.parallel) {
+            // callbacks of the same time run in parallel.
+            synchronized (this.jobs) {
+                this.jobs.add(job);
+            }
+        }
+        else {
+            this.jobs.add(job);
+        }
+    }
+
+    private void checkThread() {
+        Thread th = Thread.currentThread();
+        if (th != this.owner && this.activeProcess == null) {
+            throw new IllegalStateException(String.format("%s is confined to %s, accessed by %s",
+                    this.id,
+                    this.owner.getName(),
+                    th.getName()));
+        }
+    }
+
+    /**
+     * Steps the jobs before the key of the stop.
+     *
+     * @param until The time of the stop.
+     * @param rank The rank of the stop. Long.MAX_VALUE with the time Long.MAX_VALUE means all jobs.
+     * @return False if an exception is thrown.
+     */
+    private boolean loop(long until, long rank) {
+        long c = 0;
+        long check = this.checkPoint;
+        try {
+            while (true) {
+                Job first = this.jobs.peek();
+                Task task = firstTask();
+                if (task != null && (first == null || Job.compare(task.time, task.rank, first.time, first.rank) < 0)) {
+                    if (Job.compare(task.time, task.rank, until, rank) >= 0) {
+                        break;
+                    }
+                    c += runTask(task);
+                }
+                else if (first != null && Job.compare(first.time, first.rank, until, rank) < 0) {
+                    c += this.parallel ? stepParallel() : stepOne();
+                }
+                else {
+                    break;
+                }
+                if (c >= check) {
+                    raiseRunning(this.now, c + " steps");
+                    check += this.checkPoint;
+                }
+            }
+            raiseDone(this.now, c + " steps");
+            logger.debug("==== end ====");
+            return true;
+        }
+        catch (Throwable ex) {
+            raiseDone(this.now, c + " steps, throw " + ex.getMessage());
+            logger.debug(String.format("==== end(%s) ====", ex.getMessage()));
+            return false;
+        }
+    }
+
     private int stepOne() throws RuntimeException {
         // 1. get the first job.
         Job job = this.jobs.poll();
+        if (job.event.isCancelled()) {
+            // the time does not move to the cancelled one.
+            this.cancelledJobs = Math.max(0, this.cancelledJobs - 1);
+            return 0;
+        }
 
         // 2. update environment time
         this.now = job.time;
-        logger.debug(String.format("%4d> %s> step> %s, callbacks(%s)",
-                getNow(),
-                this.id,
-                job.event,
-                job.event.getNumberOfCallbables()));
+        if (this.tracer != null) {
+            this.tracer.onStep(this, job);
+        }
 
         // 3. callback the event.
         job.event.callback();
@@ -527,28 +1110,83 @@ public class Env {
             throw new SimEventException(job.event, job.event + " is NG and not defused");
         }
 
+        // 5. return the event to the pool.
+        if (this.pool != null && job.event.isRecyclable()) {
+            this.pool.recycle(job.event);
+        }
+
         return 1;
     }
 
+    private Task firstTask() {
+        Task later = this.laterTasks.peek();
+        if (this.soonHead == null) {
+            return later;
+        }
+        if (later == null || this.soonHead.compareTo(later) < 0) {
+            return this.soonHead;
+        }
+        return later;
+    }
+
+    private int runTask(Task task) {
+        if (task == this.soonHead) {
+            this.soonHead = task.next;
+            if (this.soonHead == null) {
+                this.soonTail = null;
+            }
+        }
+        else {
+            this.laterTasks.poll();
+        }
+        this.now = task.time;
+        Runnable runnable = task.runnable;
+        freeTask(task);
+        runnable.run();
+        return 1;
+    }
+
+    private void freeTask(Task task) {
+        task.runnable = null;
+        task.next = this.freeTasks;
+        this.freeTasks = task;
+    }
+
+    private void clearTasks() {
+        while (this.soonHead != null) {
+            Task task = this.soonHead;
+            this.soonHead = task.next;
+            freeTask(task);
+        }
+        this.soonTail = null;
+        Task task;
+        while ((task = this.laterTasks.poll()) != null) {
+            freeTask(task);
+        }
+    }
+
     private int stepParallel() throws RuntimeException {
         // 1. get jobs with the same time.
-        int now = this.jobs.peek().time;
+        long now = this.jobs.peek().time;
         ArrayList<Job> jobs = new ArrayList<>();
         while (!this.jobs.isEmpty() && this.jobs.peek().time == now) {
-            jobs.add(this.jobs.poll());
+            Job job = this.jobs.poll();
+            if (job.event.isCancelled()) {
+                this.cancelledJobs = Math.max(0, this.cancelledJobs - 1);
+            }
+            else {
+                jobs.add(job);
+            }
+        }
+        if (jobs.isEmpty()) {
+            return 0;
         }
         this.now = now;
         final Vector<RuntimeException> result = new Vector<>();
-        logger.info(String.format("%4d> %s> step> parallel, %s",
-                getNow(),
-                this.id,
-                jobs));
         jobs.parallelStream().forEach(job -> {
-            logger.info(String.format("%4d> %s> step> %s, callbacks(%s)",
-                    getNow(),
-                    this.id,
-                    job.event,
-                    job.event.getNumberOfCallbables()));
+            if (this.tracer != null) {
+                this.tracer.onStep(this, job);
+            }
 
             // 3. callback the event.
             try {
@@ -571,25 +1209,59 @@ public class Env {
         return jobs.size();
     }
 
-    private void raiseRunning(int time, String message) {
+    private void raiseRunning(long time, String message) {
         this.executor.submit(() -> this.listener.running(time, message));
     }
 
-    private void raiseDone(int time, String message) {
+    private void raiseDone(long time, String message) {
         this.executor.submit(() -> this.listener.done(time, message));
     }
 
-    private void stopSim(Event event) {
-        throw new SimStopException();
+    private static int toInt(long time) {
+        return (int) Math.min(time, Integer.MAX_VALUE);
+    }
+
+    /**
+     * The node of the task queue, linked to the next one and reused after run.
+     *
+     * @author Kan
+     *
+     */
+    private static final class Task implements Comparable<Task> {
+
+        private long time;
+
+        private long rank;
+
+        private Runnable runnable;
+
+        private Task next;
+
+        @Override
+        public int compareTo(Task c2) {
+            return Job.compare(this.time, this.rank, c2.time, c2.rank);
+        }
     }
 
     /**
-     * The job for scheduling.
+     * The job for scheduling.<br>
+     *
+     * <p>
+     * The key is packed into primitives, the time and the rank of the priority and the sequence number of the event,
+     * so the comparison never touches the event.
+     * </p>
      *
      * @author Kan
      *
      */
-    class Job implements Comparable<Job> {
+    public static class Job implements Comparable<Job> {
+
+        /**
+         * The bits of the sequence number in the rank.
+         */
+        public static final int SEQ_BITS = 56;
+
+        private static final long SEQ_MASK = (1L << SEQ_BITS) - 1;
 
         /**
          * The event.
@@ -604,7 +1276,12 @@ public class Env {
         /**
          * The time to be scheduled in the environment.
          */
-        public final int time;
+        public final long time;
+
+        /**
+         * The priority level in the high bits and the sequence number of the event in the low bits.
+         */
+        public final long rank;
 
         /**
          * Constructor.
@@ -613,24 +1290,34 @@ public class Env {
          * @param priority The priority.
          * @param time The time to be scheduled in the environment.
          */
-        Job(Event event, Event.PriorityType priority, int time) {
+        public Job(Event event, Event.PriorityType priority, long time) {
             this.event = event;
             this.priority = priority;
             this.time = time;
+            this.rank = rank(priority, event.seqNo);
+        }
+
+        private static long rank(Event.PriorityType priority, long seqNo) {
+            return ((long) priority.level << SEQ_BITS) | (seqNo & SEQ_MASK);
+        }
+
+        /**
+         * Compares the keys of two jobs.
+         *
+         * @param time1 The time of the first job.
+         * @param rank1 The rank of the first job.
+         * @param time2 The time of the second job.
+         * @param rank2 The rank of the second job.
+         * @return Negative if the first job is earlier, 0 if the same, otherwise positive.
+         */
+        public static int compare(long time1, long rank1, long time2, long rank2) {
+            int c = Long.compare(time1, time2);
+            return c != 0 ? c : Long.compare(rank1, rank2);
         }
 
         @Override
         public int compareTo(Job c2) {
-            int c = this.time - c2.time;
-            if (c != 0) {
-                return c;
-            }
-            c = this.priority.level - c2.priority.level;
-            if (c != 0) {
-                return c;
-            }
-
-            return this.event.seqNo - c2.event.seqNo;
+            return compare(this.time, this.rank, c2.time, c2.rank);
         }
 
         @Override
@@ -13,4 +13,26 @@ public interface EnvListener {
     public void running(int time, String message);
 
     public void done(int time, String message);
+
+    /**
+     * Invoked at the check points of the running environment.<br>
+     * The default implementation calls running(int, String) with the time limited to Integer.MAX_VALUE.
+     *
+     * @param time The current time.
+     * @param message The message.
+     */
+    public default void running(long time, String message) {
+        running((int) Math.min(time, Integer.MAX_VALUE), message);
+    }
+
+    /**
+     * Invoked when the environment is done.<br>
+     * The default implementation calls done(int, String) with the time limited to Integer.MAX_VALUE.
+     *
+     * @param time The stop time.
+     * @param message The message.
+     */
+    public default void done(long time, String message) {
+        done((int) Math.min(time, Integer.MAX_VALUE), message);
+    }
 }
@@ -1,12 +1,8 @@
 package uia.sim;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.function.Consumer;
 
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
-
 import uia.sim.events.AllOf;
 import uia.sim.events.AnyOf;
 import uia.sim.events.Condition;
@@ -19,10 +15,43 @@ import uia.sim.events.Condition;
  */
 public class Event {
 
-    private static final Logger logger = LogManager.getLogger(Event.class);
-
     private static final Object PENDING = new Object();
 
+    private static final short ENV_DOWN = 1;
+
+    private static final short NG = 2;
+
+    private static final short PROCESSED = 4;
+
+    private static final short DEFUSED = 8;
+
+    private static final short CANCELLED = 16;
+
+    private static final short POOLED = 32;
+
+    private static final short PINNED = 64;
+
+    private static final short RECYCLED = 128;
+
+    private static final short QUEUED = 256;
+
+    /**
+     * The callable of a process waiting the event.<br>
+     * The process is notified instead of being left waiting forever when the event is cancelled.
+     *
+     * @author Kan
+     *
+     */
+    public interface Waiting extends Consumer<Event> {
+
+        /**
+         * Invoked when the event waited is cancelled.
+         *
+         * @param event The cancelled event.
+         */
+        public void cancelled(Event event);
+    }
+
     /**
      * The priority type.
      *
@@ -48,21 +77,30 @@ public class Event {
 
     protected final Env env;
 
-    protected final String id;
+    protected String id;
 
-    protected final int seqNo;
+    protected long seqNo;
 
     private Object value;
 
-    private boolean envDown;
+    /**
+     * The state bits, ENV_DOWN, NG, PROCESSED, DEFUSED, CANCELLED, POOLED, PINNED, RECYCLED and QUEUED.
+     */
+    private short flags;
 
-    private boolean ok;
+    /**
+     * The first pending callable, it is always earlier than the ones in the array.
+     */
+    private Consumer<Event> callable;
 
-    private boolean processed;
+    /**
+     * The pending callables after the first one, created when the second one is added.
+     */
+    private Consumer<Event>[] callables;
 
-    private boolean defused;
+    private int head;
 
-    private ArrayList<Consumer<Event>> callables;
+    private int tail;
 
     /**
      * The constructor.
@@ -84,13 +122,8 @@ public class Event {
     public Event(Env env, String id, Object value) {
         this.env = env;
         this.id = id;
-        this.seqNo = env == null ? Integer.MAX_VALUE : env.genSeq();
+        this.seqNo = env == null ? Long.MAX_VALUE : env.genSeq();
         this.value = value;
-        this.envDown = false;
-        this.ok = true;
-        this.processed = false;
-        this.defused = false;
-        this.callables = new ArrayList<>();
     }
 
     /**
@@ -117,6 +150,7 @@ public class Event {
      * @return The value.
      */
     public Object getValue() {
+        checkRecycled();
         //if(this.value == PENDING) {
         //	throw new IllegalStateException("Value of event:" + this.id + " is not yet available");
         //}
@@ -138,7 +172,7 @@ public class Event {
      * @return The number of callable instances.
      */
     public int getNumberOfCallbables() {
-        return this.callables.size();
+        return (this.callable == null ? 0 : 1) + this.tail - this.head;
     }
 
     /**
@@ -148,10 +182,28 @@ public class Event {
      * @return Successful added or not.
      */
     public boolean addCallable(Consumer<Event> callable) {
-        if (this.callables.contains(callable)) {
+        checkRecycled();
+        if (callable.equals(this.callable) || indexOf(callable) >= 0) {
             return false;
         }
-        return this.callables.add(callable);
+        if (this.callable == null && this.head == this.tail) {
+            this.callable = callable;
+            return true;
+        }
+        if (this.callables == null) {
+            this.callables = newCallables(4);
+        }
+        else if (this.tail == this.callables.length) {
+            int n = this.tail - this.head;
+            Consumer<Event>[] grown = n < this.callables.length / 2 ? this.callables : newCallables(this.callables.length << 1);
+            System.arraycopy(this.callables, this.head, grown, 0, n);
+            Arrays.fill(this.callables, n, this.tail, null);
+            this.callables = grown;
+            this.head = 0;
+            this.tail = n;
+        }
+        this.callables[this.tail++] = callable;
+        return true;
     }
 
     /**
@@ -161,7 +213,17 @@ public class Event {
      * @return Successful removed or not.
      */
     public boolean removeCallable(Consumer<Event> callable) {
-        return this.callables.remove(callable);
+        if (this.callable != null && this.callable.equals(callable)) {
+            this.callable = null;
+            return true;
+        }
+        int i = indexOf(callable);
+        if (i < 0) {
+            return false;
+        }
+        System.arraycopy(this.callables, i + 1, this.callables, i, this.tail - i - 1);
+        this.callables[--this.tail] = null;
+        return true;
     }
 
     /**
@@ -213,7 +275,7 @@ public class Event {
      * @return The if the environment is down.
      */
     public boolean isEnvDown() {
-        return this.envDown;
+        return (this.flags & ENV_DOWN) != 0;
     }
 
     /**
@@ -221,8 +283,7 @@ public class Event {
      *
      */
     public void envDown() {
-        this.ok = false;
-        this.envDown = true;
+        this.flags |= NG | ENV_DOWN;
         callback();
     }
 
@@ -243,7 +304,17 @@ public class Event {
      * @return Processed or not.
      */
     public boolean isProcessed() {
-        return this.processed;
+        return (this.flags & PROCESSED) != 0;
+    }
+
+    /**
+     * Tests if the event could be waited, the callables added now will be invoked later.<br>
+     * An event could be waited until it is processed.
+     *
+     * @return True if the event could be waited.
+     */
+    public boolean isWaitable() {
+        return !isProcessed();
     }
 
     /**
@@ -252,7 +323,7 @@ public class Event {
      * @return OK or not.
      */
     public boolean isOk() {
-        return this.ok;
+        return (this.flags & NG) == 0;
     }
 
     /**
@@ -271,7 +342,7 @@ public class Event {
      * @return True when failed event's exception has been defused.
      */
     public boolean isDefused() {
-        return this.defused;
+        return (this.flags & DEFUSED) != 0;
     }
 
     /**
@@ -279,7 +350,7 @@ public class Event {
      *
      */
     public void ng() {
-        this.ok = false;
+        this.flags |= NG;
     }
 
     /**
@@ -287,7 +358,65 @@ public class Event {
      *
      */
     public void defused() {
-        this.defused = true;
+        this.flags |= DEFUSED;
+    }
+
+    /**
+     * Tests if the event has been cancelled.
+     *
+     * @return Cancelled or not.
+     */
+    public boolean isCancelled() {
+        return (this.flags & CANCELLED) != 0;
+    }
+
+    /**
+     * Cancels the event. All the callables WILL NOT be invoked.<br>
+     *
+     * <p>
+     * The job of a scheduled event is left in the event queue and skipped by the environment, the time of the environment
+     * does not move to it. The environment removes the cancelled jobs when they are too many.
+     * </p>
+     *
+     * <p>
+     * The processes waiting the event are interrupted, the yield of the process throws SimEventException.
+     * A cancelled event is not scheduled any more, trigger(), succeed() and fail() do not add it in the event queue.
+     * </p>
+     *
+     * @return False if the event has been processed or cancelled.
+     */
+    public boolean cancel() {
+        if (!locked()) {
+            return doCancel();
+        }
+        synchronized (this) {
+            return doCancel();
+        }
+    }
+
+    private boolean doCancel() {
+        checkRecycled();
+        if (!isWaitable() || isCancelled()) {
+            return false;
+        }
+        this.flags |= CANCELLED;
+        Consumer<Event> c;
+        while ((c = pollCallable()) != null) {
+            if (c instanceof Waiting) {
+                ((Waiting) c).cancelled(this);
+            }
+        }
+        clearCallables();
+        if (this.env != null) {
+            if (this.env.getTracer() != null) {
+                this.env.getTracer().onCancel(this);
+            }
+            // only the job in the event queue is skipped later.
+            if ((this.flags & (QUEUED | PROCESSED)) == QUEUED) {
+                this.env.cancelled(this);
+            }
+        }
+        return true;
     }
 
     /**
@@ -296,9 +425,22 @@ public class Event {
     .	 *
      * @param event The specific event.
      */
-    public synchronized void trigger(Event event) {
-        logger.debug(String.format("%4d> %s> triggered(uid=%s) by %s", this.env.getNow(), getId(), this.seqNo, event.getId()));
-        this.ok = event.isOk();
+    public void trigger(Event event) {
+        if (!locked()) {
+            doTrigger(event);
+            return;
+        }
+        synchronized (this) {
+            doTrigger(event);
+        }
+    }
+
+    private void doTrigger(Event event) {
+        checkRecycled();
+        if (this.env.getTracer() != null) {
+            this.env.getTracer().onTrigger(this, event);
+        }
+        setOk(event.isOk());
         this.value = event.value;
         // schedule
         this.env.schedule(this, PriorityType.NORMAL);
@@ -310,7 +452,7 @@ public class Event {
      *
      * @param value The value of the event.
      */
-    public synchronized void succeed(Object value) {
+    public void succeed(Object value) {
         succeed(value, PriorityType.NORMAL);
     }
 
@@ -321,13 +463,26 @@ public class Event {
      * @param value The value of the event.
      * @param priority The priority.
      */
-    public synchronized void succeed(Object value, PriorityType priority) {
-        logger.debug(String.format("%4d> %s> succeed(uid=%s)", this.env.getNow(), getId(), this.seqNo));
+    public void succeed(Object value, PriorityType priority) {
+        if (!locked()) {
+            doSucceed(value, priority);
+            return;
+        }
+        synchronized (this) {
+            doSucceed(value, priority);
+        }
+    }
+
+    private void doSucceed(Object value, PriorityType priority) {
+        checkRecycled();
+        if (this.env.getTracer() != null) {
+            this.env.getTracer().onSucceed(this);
+        }
         if (isTriggered()) {
-            throw new SimEventException(this, "The event:" + this.id + " has alreday been triggered");
+            throw new SimEventException(this, "The event:" + getId() + " has alreday been triggered");
         }
 
-        this.ok = true;
+        setOk(true);
         this.value = value;
         // schedule
         this.env.schedule(this, priority);
@@ -339,13 +494,26 @@ public class Event {
      *
      * @param cause The failed cause.
      */
-    public synchronized void fail(Exception cause) {
-        logger.debug(String.format("%4d> %s> fail(uid=%s), %s", this.env.getNow(), getId(), this.seqNo, cause.getMessage()));
+    public void fail(Exception cause) {
+        if (!locked()) {
+            doFail(cause);
+            return;
+        }
+        synchronized (this) {
+            doFail(cause);
+        }
+    }
+
+    private void doFail(Exception cause) {
+        checkRecycled();
+        if (this.env.getTracer() != null) {
+            this.env.getTracer().onFail(this, cause);
+        }
         if (isTriggered()) {
-            throw new SimEventException(this, "The event:" + this.id + " has alreday been triggered");
+            throw new SimEventException(this, "The event:" + getId() + " has alreday been triggered");
         }
 
-        this.ok = false;
+        setOk(false);
         this.value = cause;
         // schedule
         this.env.schedule(this, PriorityType.NORMAL);
@@ -356,17 +524,155 @@ public class Event {
      * The event will be marked as 'processed' at the same time.
      *
      */
-    public synchronized void callback() {
-        logger.info(String.format("%4d> %s> -- call(uid=%s) --", this.env.getNow(), this, this.seqNo));
-        this.processed = true;
+    public void callback() {
+        if (!locked()) {
+            doCallback();
+            return;
+        }
+        synchronized (this) {
+            doCallback();
+        }
+    }
+
+    private void doCallback() {
+        checkRecycled();
+        if (this.env.getTracer() != null) {
+            this.env.getTracer().onCallback(this);
+        }
+        this.flags |= PROCESSED;
         try {
-            while (!this.callables.isEmpty()) {
-                this.callables.remove(0).accept(this);
+            Consumer<Event> c;
+            while ((c = pollCallable()) != null) {
+                c.accept(this);
             }
         }
         finally {
-            logger.debug(String.format("%4d> %s> == done(uid=%s) ==", this.env.getNow(), this, this.seqNo));
-            this.callables.clear();
+            clearCallables();
+        }
+    }
+
+    /**
+     * Executes the instances of callable added before, then re-arms the event to be triggered again.<br>
+     *
+     * <p>
+     * The event is 'processed' while the callables are executed. The callables added by them are kept for the next time.
+     * The callables are executed without the lock, the processes resumed by them could trigger or cancel the event.
+     * Used by the re-armable events instead of callback().
+     * </p>
+     *
+     */
+    protected void callbackAndRearm() {
+        if (this.env.getTracer() != null) {
+            this.env.getTracer().onCallback(this);
+        }
+        this.flags |= PROCESSED;
+        try {
+            for (int n = getNumberOfCallbables(); n > 0; n--) {
+                Consumer<Event> c = pollCallable();
+                if (c == null) {
+                    break;
+                }
+                c.accept(this);
+            }
+        }
+        finally {
+            if (!locked()) {
+                rearm();
+            }
+            else {
+                synchronized (this) {
+                    rearm();
+                }
+            }
+        }
+    }
+
+    private void rearm() {
+        this.flags &= CANCELLED;
+        this.value = PENDING;
+        this.seqNo = this.env.genSeq();
+    }
+
+    /**
+     * Tests if the event is pinned.
+     *
+     * @return True if the event is pinned.
+     */
+    public boolean isPinned() {
+        return (this.flags & PINNED) != 0;
+    }
+
+    /**
+     * Pins the event, a pooled event is not recycled after processed.<br>
+     * Pin the event if it is kept by the model after processed.
+     *
+     */
+    public void pin() {
+        this.flags |= PINNED;
+    }
+
+    /**
+     * Tests if the event has been recycled to the pool of the environment.
+     *
+     * @return True if the event has been recycled.
+     */
+    public boolean isRecycled() {
+        return (this.flags & RECYCLED) != 0;
+    }
+
+    /**
+     * Marks the event created for the pool of the environment.
+     *
+     */
+    protected void pooled() {
+        this.flags |= POOLED;
+    }
+
+    /**
+     * Reuses the recycled event as a new one.
+     *
+     * @param id The event id.
+     * @param value The value of the event.
+     */
+    protected void reuse(String id, Object value) {
+        if ((this.flags & RECYCLED) == 0) {
+            throw new SimEventException(this, "The event:" + getId() + " is not recycled");
+        }
+        this.id = id;
+        this.value = value;
+        this.flags = POOLED;
+        this.seqNo = this.env.genSeq();
+    }
+
+    /**
+     * Tests if the event could be returned to the pool.
+     *
+     * @return True if the event is pooled, not pinned and not recycled.
+     */
+    boolean isRecyclable() {
+        return (this.flags & (POOLED | PINNED | RECYCLED)) == POOLED;
+    }
+
+    /**
+     * Marks the event added in the event queue.
+     *
+     */
+    void queued() {
+        this.flags |= QUEUED;
+    }
+
+    /**
+     * Marks the event recycled.
+     *
+     */
+    void recycled() {
+        this.flags |= RECYCLED;
+        this.value = PENDING;
+    }
+
+    private void checkRecycled() {
+        if ((this.flags & RECYCLED) != 0) {
+            throw new SimEventException(this, "The event:" + getId() + " has been recycled");
         }
     }
 
@@ -377,11 +683,8 @@ public class Event {
      */
     public final Event forLog() {
         Event event = new Event(null, toString());
-        event.ok = this.ok;
-        event.processed = this.processed;
-        event.defused = this.defused;
+        event.flags = (short) (this.flags & ~(POOLED | RECYCLED | QUEUED));
         event.value = this.value;
-        event.envDown = this.envDown;
         return event;
     }
 
@@ -390,6 +693,60 @@ public class Event {
         return getId();
     }
 
+    /**
+     * Tests if the event is locked, not locked in a single-threaded environment.
+     *
+     * @return True if the event is locked.
+     */
+    private boolean locked() {
+        return this.env == null || !this.env.isSingleThreaded();
+    }
+
+    private void setOk(boolean ok) {
+        this.flags = (short) (ok ? this.flags & ~NG : this.flags | NG);
+    }
+
+    private int indexOf(Consumer<Event> callable) {
+        for (int i = this.head; i < this.tail; i++) {
+            if (callable.equals(this.callables[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private Consumer<Event> pollCallable() {
+        Consumer<Event> c = this.callable;
+        if (c != null) {
+            this.callable = null;
+            return c;
+        }
+        if (this.head == this.tail) {
+            return null;
+        }
+        c = this.callables[this.head];
+        this.callables[this.head++] = null;
+        if (this.head == this.tail) {
+            this.head = 0;
+            this.tail = 0;
+        }
+        return c;
+    }
+
+    private void clearCallables() {
+        this.callable = null;
+        if (this.head < this.tail) {
+            Arrays.fill(this.callables, this.head, this.tail, null);
+        }
+        this.head = 0;
+        this.tail = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Consumer<Event>[] newCallables(int size) {
+        return (Consumer<Event>[]) new Consumer<?>[size];
+    }
+
     /**
      * Returns detail information of this event.
      *
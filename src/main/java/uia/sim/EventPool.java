@@ -0,0 +1,170 @@
+package uia.sim;
+
+import java.util.ArrayDeque;
+
+import uia.sim.events.Initialize;
+import uia.sim.events.Interruption;
+import uia.sim.events.Timeout;
+
+/**
+ * The pool of the events created by the environment, Timeout, Initialize and Interruption.<br>
+ *
+ * <p>
+ * A pooled event returns to the pool after processed, the environment reuses it for the next event of the same type.
+ * The event is not recycled if it is pinned. The condition pins the events of it, the process pins the event
+ * which it is finished by. Pin the event if the model keeps it after processed.
+ * </p>
+ *
+ * <p>
+ * In the debug mode, the recycled events are not reused. Using a recycled event throws SimEventException.
+ * </p>
+ *
+ * <p>
+ * Not thread-safe. The parallel mode is not supported.
+ * </p>
+ *
+ * @author Kan
+ *
+ */
+public final class EventPool {
+
+    private final int capacity;
+
+    private final boolean debug;
+
+    private final ArrayDeque<Timeout> timeouts;
+
+    private final ArrayDeque<Initialize> initializes;
+
+    private final ArrayDeque<Interruption> interruptions;
+
+    private long hits;
+
+    private long misses;
+
+    private long recycled;
+
+    /**
+     * The constructor. 1024 idle events of a type at most.
+     *
+     */
+    public EventPool() {
+        this(1024, false);
+    }
+
+    /**
+     * The constructor.
+     *
+     * @param capacity The number of idle events of a type at most.
+     * @param debug True if the recycled events are not reused to detect using them.
+     */
+    public EventPool(int capacity, boolean debug) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity(=" + capacity + ") must be >= 1");
+        }
+        this.capacity = capacity;
+        this.debug = debug;
+        this.timeouts = new ArrayDeque<>();
+        this.initializes = new ArrayDeque<>();
+        this.interruptions = new ArrayDeque<>();
+    }
+
+    /**
+     * Tests if the pool is in the debug mode.
+     *
+     * @return True if the recycled events are not reused.
+     */
+    public boolean isDebug() {
+        return this.debug;
+    }
+
+    /**
+     * Returns the number of the events reused.
+     *
+     * @return The number of the events.
+     */
+    public long getHits() {
+        return this.hits;
+    }
+
+    /**
+     * Returns the number of the events created because the pool is empty.
+     *
+     * @return The number of the events.
+     */
+    public long getMisses() {
+        return this.misses;
+    }
+
+    /**
+     * Returns the number of the events recycled.
+     *
+     * @return The number of the events.
+     */
+    public long getRecycled() {
+        return this.recycled;
+    }
+
+    /**
+     * Returns the number of the idle events.
+     *
+     * @return The number of the events.
+     */
+    public int size() {
+        return this.timeouts.size() + this.initializes.size() + this.interruptions.size();
+    }
+
+    /**
+     * Returns a recycled event. Used by the events to create themselves.
+     *
+     * @param <T> The type of the event.
+     * @param type The type of the event.
+     * @return The recycled event or null if the pool is empty.
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Event> T poll(Class<T> type) {
+        ArrayDeque<? extends Event> queue = queue(type);
+        if (queue == null) {
+            throw new IllegalArgumentException(type.getSimpleName() + " is not pooled");
+        }
+        T event = (T) queue.poll();
+        if (event == null) {
+            this.misses++;
+        }
+        else {
+            this.hits++;
+        }
+        return event;
+    }
+
+    /**
+     * Returns the processed event to the pool.
+     *
+     * @param event The event.
+     */
+    void recycle(Event event) {
+        event.recycled();
+        this.recycled++;
+        if (this.debug) {
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        ArrayDeque<Event> queue = (ArrayDeque<Event>) queue(event.getClass());
+        if (queue != null && queue.size() < this.capacity) {
+            queue.push(event);
+        }
+    }
+
+    private ArrayDeque<? extends Event> queue(Class<?> type) {
+        if (type == Timeout.class) {
+            return this.timeouts;
+        }
+        if (type == Initialize.class) {
+            return this.initializes;
+        }
+        if (type == Interruption.class) {
+            return this.interruptions;
+        }
+        return null;
+    }
+}
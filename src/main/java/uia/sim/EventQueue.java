@@ -0,0 +1,98 @@
+package uia.sim;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.function.Predicate;
+
+import uia.sim.Env.Job;
+
+/**
+ * The event queue of the environment.<br>
+ *
+ * <p>
+ * The queue keeps the scheduled jobs in the order of time, priority and sequence number of the event,
+ * the order defined by Job.compareTo(). The environment polls the first job to step.
+ * </p>
+ *
+ * <p>
+ * The environment accesses the queue from one thread at a time, the implementations are not required to be thread-safe.
+ * The built-in implementations are in the package <b>uia.sim.queues</b>.
+ * </p>
+ *
+ * @author Kan
+ *
+ */
+public interface EventQueue extends Iterable<Job> {
+
+    /**
+     * Adds a job.
+     *
+     * @param job The job.
+     */
+    public void add(Job job);
+
+    /**
+     * Adds the jobs.<br>
+     * The default implementation adds the jobs one by one.
+     *
+     * @param jobs The jobs.
+     */
+    public default void addAll(Collection<Job> jobs) {
+        for (Job job : jobs) {
+            add(job);
+        }
+    }
+
+    /**
+     * Retrieves and removes the first job.
+     *
+     * @return The first job or null if the queue is empty.
+     */
+    public Job poll();
+
+    /**
+     * Retrieves the first job without removing.
+     *
+     * @return The first job or null if the queue is empty.
+     */
+    public Job peek();
+
+    /**
+     * Returns the number of jobs.
+     *
+     * @return The number of jobs.
+     */
+    public int size();
+
+    /**
+     * Tests if the queue is empty.
+     *
+     * @return True if the queue is empty.
+     */
+    public default boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Removes the jobs matching the filter.<br>
+     * The default implementation polls all jobs and adds the others back.
+     *
+     * @param filter The filter.
+     * @return The number of removed jobs.
+     */
+    public default int removeIf(Predicate<Job> filter) {
+        ArrayList<Job> kept = new ArrayList<>(size());
+        int removed = 0;
+        Job job;
+        while ((job = poll()) != null) {
+            if (filter.test(job)) {
+                removed++;
+            }
+            else {
+                kept.add(job);
+            }
+        }
+        kept.forEach(this::add);
+        return removed;
+    }
+}
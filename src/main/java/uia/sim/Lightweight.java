@@ -0,0 +1,40 @@
+package uia.sim;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a Processable which runs without a platform thread.<br>
+ *
+ * <p>
+ * The run() of the process is carried by a virtual thread, a continuation mounted on a shared carrier thread
+ * only while the process is running, so a parked process costs a heap-allocated stack chunk instead of a thread stack.
+ * The model runs unchanged, only the annotation is required.
+ * </p>
+ *
+ * <p>
+ * On JVMs without virtual threads (before 21) binding the process throws SimException instead of running it on
+ * a platform thread silently. Use {@link Steppable} for a process without any thread on every JVM.
+ * </p>
+ *
+ * <pre>{@code
+ * @Lightweight
+ * public Hello extends Processable {
+ *     ...
+ * }
+ * }</pre>
+ *
+ * @author Kan
+ *
+ */
+@Documented
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Lightweight {
+
+}
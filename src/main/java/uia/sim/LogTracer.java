@@ -0,0 +1,144 @@
+package uia.sim;
+
+import java.util.Collection;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import uia.sim.Env.Job;
+import uia.sim.events.Process;
+
+/**
+ * The tracer writing the log4j messages.<br>
+ *
+ * <p>
+ * The messages and the levels are the same as the logging of the environment, events and processes, the names of loggers
+ * are the classes. A message is formatted only if the level is enabled.
+ * The event queue is dumped on each schedule if Env.DEBUG is true and the level DEBUG is enabled.
+ * </p>
+ *
+ * @author Kan
+ *
+ */
+public class LogTracer implements Tracer {
+
+    private static final Logger envLogger = LogManager.getLogger(Env.class);
+
+    private static final Logger eventLogger = LogManager.getLogger(Event.class);
+
+    private static final Logger processLogger = LogManager.getLogger(Process.class);
+
+    @Override
+    public void onSchedule(Env env, Job job) {
+        if (envLogger.isInfoEnabled()) {
+            envLogger.info(String.format("%4d> %s>  sch> %s,uid=%s at %s",
+                    env.getTime(),
+                    env.getId(),
+                    job.event,
+                    job.event.seqNo,
+                    job.time));
+        }
+        if (Env.DEBUG && envLogger.isDebugEnabled()) {
+            envLogger.debug(String.format("%4d> %s> jobs = %s",
+                    env.getTime(),
+                    env.getId(),
+                    env.getQueue()));
+        }
+    }
+
+    @Override
+    public void onScheduleAll(Env env, Collection<Job> jobs) {
+        if (envLogger.isInfoEnabled()) {
+            envLogger.info(String.format("%4d> %s>  sch> %s jobs",
+                    env.getTime(),
+                    env.getId(),
+                    jobs.size()));
+        }
+    }
+
+    @Override
+    public void onStep(Env env, Job job) {
+        if (envLogger.isDebugEnabled()) {
+            envLogger.debug(String.format("%4d> %s> step> %s, callbacks(%s)",
+                    env.getTime(),
+                    env.getId(),
+                    job.event,
+                    job.event.getNumberOfCallbables()));
+        }
+    }
+
+    @Override
+    public void onCompact(Env env, int removed) {
+        if (envLogger.isDebugEnabled()) {
+            envLogger.debug(String.format("%4d> %s> compact, %s removed", env.getTime(), env.getId(), removed));
+        }
+    }
+
+    @Override
+    public void onTrigger(Event event, Event by) {
+        if (eventLogger.isDebugEnabled()) {
+            eventLogger.debug(String.format("%4d> %s> triggered(uid=%s) by %s", event.env.getTime(), event.getId(), event.seqNo, by.getId()));
+        }
+    }
+
+    @Override
+    public void onSucceed(Event event) {
+        if (eventLogger.isDebugEnabled()) {
+            eventLogger.debug(String.format("%4d> %s> succeed(uid=%s)", event.env.getTime(), event.getId(), event.seqNo));
+        }
+    }
+
+    @Override
+    public void onFail(Event event, Exception cause) {
+        if (eventLogger.isDebugEnabled()) {
+            eventLogger.debug(String.format("%4d> %s> fail(uid=%s), %s", event.env.getTime(), event.getId(), event.seqNo, cause.getMessage()));
+        }
+    }
+
+    @Override
+    public void onCancel(Event event) {
+        if (eventLogger.isDebugEnabled()) {
+            eventLogger.debug(String.format("%4d> %s> cancel(uid=%s)", event.env.getTime(), event.getId(), event.seqNo));
+        }
+    }
+
+    @Override
+    public void onCallback(Event event) {
+        if (eventLogger.isInfoEnabled()) {
+            eventLogger.info(String.format("%4d> %s> -- call(uid=%s) --", event.env.getTime(), event, event.seqNo));
+        }
+    }
+
+    @Override
+    public void onResume(Process process, Event by) {
+        if (processLogger.isDebugEnabled()) {
+            String state = !process.isAlive() ? "(closed)" : by.isEnvDown() ? "(envDown)" : "";
+            processLogger.debug(String.format("%4d> %s> resume%s, by %s", process.getEnv().getTime(), process.getId(), state, by.toFullString()));
+        }
+    }
+
+    @Override
+    public void onYield(Process process, Event event) {
+        if (processLogger.isDebugEnabled()) {
+            processLogger.debug(String.format("%4d> %s> resume, %s, %s",
+                    process.getEnv().getTime(),
+                    process.getId(),
+                    event,
+                    event.isProcessed() ? "processed" : "blocking"));
+        }
+    }
+
+    @Override
+    public void onInterrupt(Process process, Object cause) {
+        if (processLogger.isDebugEnabled()) {
+            processLogger.debug(String.format("%s> interrupt", process.getId()));
+        }
+    }
+
+    @Override
+    public void onDone(Process process) {
+        if (processLogger.isInfoEnabled()) {
+            processLogger.info(String.format("%4d> %s> will be closed", process.getEnv().getTime(), process));
+        }
+    }
+}
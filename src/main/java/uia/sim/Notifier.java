@@ -1,6 +1,6 @@
 package uia.sim;
 
-import java.util.Vector;
+import java.util.ArrayList;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -15,37 +15,49 @@ public class Notifier<T> {
 
     private final String id;
 
-    private final Vector<Event> waitingEvents;
+    private final ArrayList<Event> waitingEvents;
 
     public Notifier(Env env, String id) {
         this.env = env;
         this.id = id;
-        this.waitingEvents = new Vector<>();
+        this.waitingEvents = new ArrayList<>();
     }
 
-    public synchronized Event waiting(String listener) {
+    public Event waiting(String listener) {
         Event e = new Event(this.env, listener);
-        this.waitingEvents.add(e);
+        add(e);
         return e;
     }
 
-    public synchronized Event waiting(String listener, int timeout) {
+    public Event waiting(String listener, int timeout) {
         Event e = new Event(this.env, listener);
         this.env.process("notifier_timeout", y2 -> {
             y2.call(this.env.timeout(listener, timeout));
-            if (this.waitingEvents.remove(e) && !e.isTriggered()) {
+            if (remove(e) && !e.isTriggered()) {
                 e.succeed(null);
             }
         });
-        this.waitingEvents.add(e);
+        add(e);
         return e;
     }
 
-    public synchronized void available(T by) {
-        logger.info(String.format("%4d> %s> %s available",
-                this.env.getNow(),
-                this.id,
-                by));
+    public void available(T by) {
+        if (this.env.isSingleThreaded()) {
+            notifyWaiting(by);
+            return;
+        }
+        synchronized (this) {
+            notifyWaiting(by);
+        }
+    }
+
+    private void notifyWaiting(T by) {
+        if (logger.isInfoEnabled()) {
+            logger.info(String.format("%4d> %s> %s available",
+                    this.env.getTime(),
+                    this.id,
+                    by));
+        }
         while (!this.waitingEvents.isEmpty()) {
             Event e = this.waitingEvents.remove(0);
             if (!e.isTriggered()) {
@@ -53,4 +65,23 @@ public class Notifier<T> {
             }
         }
     }
+
+    private void add(Event e) {
+        if (this.env.isSingleThreaded()) {
+            this.waitingEvents.add(e);
+            return;
+        }
+        synchronized (this) {
+            this.waitingEvents.add(e);
+        }
+    }
+
+    private boolean remove(Event e) {
+        if (this.env.isSingleThreaded()) {
+            return this.waitingEvents.remove(e);
+        }
+        synchronized (this) {
+            return this.waitingEvents.remove(e);
+        }
+    }
 }
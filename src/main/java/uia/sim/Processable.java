@@ -1,5 +1,7 @@
 package uia.sim;
 
+import uia.cor.Carrier;
+import uia.cor.Carriers;
 import uia.cor.Yield2Way;
 import uia.sim.events.Process;
 
@@ -43,6 +45,12 @@ import uia.sim.events.Process;
  * <pre>
  * 10, Hello DESimJava
  * </pre>
+ *
+ * <p>
+ * Annotate the class with {@link Lightweight} to run the process without a platform thread on Java 21 or later,
+ * or inherit from {@link Steppable} for a process without any thread.
+ * </p>
+ *
  * @author Kan
  *
  */
@@ -56,6 +64,8 @@ public abstract class Processable {
 
     private Yield2Way<Event, Object> yield;
 
+    private long stackSize;
+
     /**
      * The constructor.
      *
@@ -74,6 +84,24 @@ public abstract class Processable {
         return this.id;
     }
 
+    /**
+     * Returns the stack size hint of the thread of the process.
+     *
+     * @return The stack size in bytes. 0 means the stack size of the environment.
+     */
+    public long getStackSize() {
+        return this.stackSize;
+    }
+
+    /**
+     * Sets the stack size hint of the thread of the process. Call it before binding.
+     *
+     * @param stackSize The stack size in bytes. 0 means the stack size of the environment.
+     */
+    public void setStackSize(long stackSize) {
+        this.stackSize = Math.max(0, stackSize);
+    }
+
     /**
      * Bind the process with specific environment.<br>
      * Only allowed to bind once, or throw a runtime exception.
@@ -82,12 +110,36 @@ public abstract class Processable {
      * @return A new process.
      */
     public final Process bind(Env env) {
+        return bind(env, 0);
+    }
+
+    /**
+     * Bind the process with specific environment and starts it after a delay.<br>
+     * Only allowed to bind once, or throw a runtime exception.
+     * A {@link Lightweight} process throws a runtime exception if the JVM does not support virtual threads.
+     *
+     * @param env The environment.
+     * @param delay The delay time to start the process.
+     * @return A new process.
+     */
+    public final Process bind(Env env, long delay) {
         if (this.env != null) {
             throw new SimException(this.getId() + " has binded already");
         }
 
+        Carrier carrier;
+        if (getClass().isAnnotationPresent(Lightweight.class)) {
+            if (!Carriers.isVirtualSupported()) {
+                throw new SimException(this.getId() + " is lightweight but the JVM does not support virtual threads, use Steppable instead");
+            }
+            carrier = Carriers.virtual();
+        }
+        else {
+            carrier = env.getCarrier(this.stackSize);
+        }
+
         this.env = env;
-        this.process = env.process(this.id, this::readyToGo);
+        this.process = new Process(env, this.id, carrier, delay, this::readyToGo);
         initial();
         return this.process;
     }
@@ -29,7 +29,7 @@ public class RealtimeEnv extends Env {
     @Override
     protected int step() throws SimEventException {
         Job job = this.jobs.peek();
-        int ms = job.time - getNow();
+        long ms = job.time - getTime();
         if (ms > 0) {
             try {
                 Thread.sleep(ms * this.tickSize);
@@ -0,0 +1,159 @@
+package uia.sim;
+
+import uia.sim.events.Process;
+import uia.sim.events.StepProcess;
+
+/**
+ * The abstract steppable class.<br>
+ * The thread-free version of the Processable. The process is a state machine executed inline by the environment.
+ *
+ * <p>
+ * The environment instance is only available after binding,
+ * override the <b>initial</b> method to configure the environment instead of in <b>constructor</b>.
+ * </p>
+ *
+ * <p>
+ * The example below inherits from the Steppable and implement step(by).<br>
+ * <ul>
+ * <li>step(by) returns the next event to wait for, or null to terminate the process.</li>
+ * <li>the state of the process is kept in the fields.</li>
+ * </ul>
+
+ * <pre>{@code
+ * public Hello extends Steppable {
+ *
+ *     private int state;
+ *
+ *     public Hello() {
+ *         super("DESimJava");
+ *     }
+ *
+ *     public Event step(Event by) {
+ *         switch (this.state++) {
+ *             case 0:
+ *                 return env().timeout(10);
+ *             default:
+ *                 System.out.println(now() + ", Hello " + getId());
+ *                 return null;
+ *         }
+ *     }
+ * }
+ *
+ * Env env = new Env();
+ * env.process(new Hello());
+ * env.run();
+ *
+ * }</pre>
+ *
+ * Above example will output:
+ * <pre>
+ * 10, Hello DESimJava
+ * </pre>
+ * @author Kan
+ *
+ */
+public abstract class Steppable {
+
+    private final String id;
+
+    private Env env;
+
+    private StepProcess process;
+
+    /**
+     * The constructor.
+     *
+     * @param id The process id.
+     */
+    protected Steppable(String id) {
+        this.id = id;
+    }
+
+    /**
+     * Returns the process id.
+     *
+     * @return The process id.
+     */
+    public String getId() {
+        return this.id;
+    }
+
+    /**
+     * Bind the process with specific environment.<br>
+     * Only allowed to bind once, or throw a runtime exception.
+     *
+     * @param env The environment.
+     * @return A new process.
+     */
+    public final Process bind(Env env) {
+        if (this.env != null) {
+            throw new SimException(this.getId() + " has binded already");
+        }
+
+        this.env = env;
+        this.process = new StepProcess(env, this.id, this::step);
+        initial();
+        return this.process;
+    }
+
+    /**
+     * Returns current time of the environment.
+     *
+     * @return The time.
+     */
+    protected int now() {
+        return this.env == null ? 0 : this.env.getNow();
+    }
+
+    /**
+     * Returns the environment.
+     *
+     * @return The environment.
+     */
+    protected final Env env() {
+        return this.env;
+    }
+
+    /**
+     * Returns the process.
+     *
+     * @return The process.
+     */
+    protected final Process proc() {
+        return this.process;
+    }
+
+    /**
+     * Terminates the process with a value.
+     *
+     * @param result The value of the process.
+     * @return null, the value step(by) should return.
+     */
+    protected final Event finish(Object result) {
+        this.process.setFinalResult(result);
+        return null;
+    }
+
+    /**
+     * Invoked after binding. Override the method to configure the environment instead of in constructor.
+     *
+     */
+    protected abstract void initial();
+
+    /**
+     * Executes one step of this process.<br>
+     *
+     * <p>
+     * If the event is not ok (failed or interrupted), the value of the event is the cause.
+     * </p>
+     *
+     * @param by The event which resumes the process. The first one is the Initialize event.
+     * @return The next event to wait for, or null to terminate the process.
+     */
+    protected abstract Event step(Event by);
+
+    @Override
+    public String toString() {
+        return "Step(" + getId() + ")";
+    }
+}
@@ -0,0 +1,134 @@
+package uia.sim;
+
+import java.util.Collection;
+
+import uia.sim.Env.Job;
+import uia.sim.events.Process;
+
+/**
+ * The tracer of the environment.<br>
+ *
+ * <p>
+ * The environment, events and processes invoke the tracer at the points of interest with the objects, not the messages.
+ * Nothing is formatted and nothing is invoked if no tracer is installed, see Env.setTracer().
+ * All the methods do nothing by default, LogTracer writes them to log4j.
+ * </p>
+ *
+ * @author Kan
+ *
+ */
+public interface Tracer {
+
+    /**
+     * Invoked when a job is scheduled.
+     *
+     * @param env The environment.
+     * @param job The job.
+     */
+    public default void onSchedule(Env env, Job job) {
+    }
+
+    /**
+     * Invoked when the jobs are scheduled in bulk.
+     *
+     * @param env The environment.
+     * @param jobs The jobs.
+     */
+    public default void onScheduleAll(Env env, Collection<Job> jobs) {
+    }
+
+    /**
+     * Invoked when the environment steps to a job.
+     *
+     * @param env The environment.
+     * @param job The job.
+     */
+    public default void onStep(Env env, Job job) {
+    }
+
+    /**
+     * Invoked when the cancelled jobs are removed from the event queue.
+     *
+     * @param env The environment.
+     * @param removed The number of removed jobs.
+     */
+    public default void onCompact(Env env, int removed) {
+    }
+
+    /**
+     * Invoked when an event is triggered by another one.
+     *
+     * @param event The event.
+     * @param by The event triggering it.
+     */
+    public default void onTrigger(Event event, Event by) {
+    }
+
+    /**
+     * Invoked when an event succeeds.
+     *
+     * @param event The event.
+     */
+    public default void onSucceed(Event event) {
+    }
+
+    /**
+     * Invoked when an event fails.
+     *
+     * @param event The event.
+     * @param cause The cause.
+     */
+    public default void onFail(Event event, Exception cause) {
+    }
+
+    /**
+     * Invoked when an event is cancelled.
+     *
+     * @param event The event.
+     */
+    public default void onCancel(Event event) {
+    }
+
+    /**
+     * Invoked before the callables of an event are invoked.
+     *
+     * @param event The event.
+     */
+    public default void onCallback(Event event) {
+    }
+
+    /**
+     * Invoked when a process is resumed, including the closed process and the environment down.
+     *
+     * @param process The process.
+     * @param by The event resuming it.
+     */
+    public default void onResume(Process process, Event by) {
+    }
+
+    /**
+     * Invoked when a process yields an event. The process waits for it if the event is not processed.
+     *
+     * @param process The process.
+     * @param event The event.
+     */
+    public default void onYield(Process process, Event event) {
+    }
+
+    /**
+     * Invoked when a process is interrupted.
+     *
+     * @param process The process.
+     * @param cause The cause.
+     */
+    public default void onInterrupt(Process process, Object cause) {
+    }
+
+    /**
+     * Invoked when a process is done.
+     *
+     * @param process The process.
+     */
+    public default void onDone(Process process) {
+    }
+}
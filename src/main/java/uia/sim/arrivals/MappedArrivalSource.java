@@ -0,0 +1,220 @@
+package uia.sim.arrivals;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Function;
+
+import uia.sim.ArrivalSource;
+import uia.sim.Event.PriorityType;
+
+/**
+ * The arrival source reading a binary file with the memory-mapped I/O.<br>
+ *
+ * <p>
+ * The file is a sequence of records sorted by time, each record is:
+ * </p>
+ * <ul>
+ * <li>time - long, 8 bytes.</li>
+ * <li>priority - the level of PriorityType, 1 byte.</li>
+ * <li>length - int, 4 bytes.</li>
+ * <li>payload - <b>length</b> bytes.</li>
+ * </ul>
+ * <p>
+ * The numbers are big-endian, the same as DataOutputStream. The value of an arrival is decoded from the payload,
+ * the bytes of the payload by default.
+ * </p>
+ *
+ * <p>
+ * The file is mapped window by window, a file larger than 2GB is supported and only one window is resident.
+ * A record must not be larger than a window.
+ * </p>
+ *
+ * @author Kan
+ *
+ */
+public class MappedArrivalSource implements ArrivalSource {
+
+    /**
+     * The size of the header of a record.
+     */
+    public static final int HEADER_SIZE = 13;
+
+    private static final PriorityType[] PRIORITIES = PriorityType.values();
+
+    private final FileChannel channel;
+
+    private final Function<ByteBuffer, Object> decoder;
+
+    private final long fileSize;
+
+    private final int windowSize;
+
+    private MappedByteBuffer window;
+
+    private long windowStart;
+
+    private long time;
+
+    private PriorityType priority;
+
+    private Object value;
+
+    private long count;
+
+    private boolean closed;
+
+    /**
+     * The constructor. The value is the bytes of the payload, the window is 64MB.
+     *
+     * @param path The path of the file.
+     * @throws IOException Failed to open the file.
+     */
+    public MappedArrivalSource(Path path) throws IOException {
+        this(path, MappedArrivalSource::bytes, 64 << 20);
+    }
+
+    /**
+     * The constructor. The window is 64MB.
+     *
+     * @param path The path of the file.
+     * @param decoder The decoder of the payload to the value.
+     * @throws IOException Failed to open the file.
+     */
+    public MappedArrivalSource(Path path, Function<ByteBuffer, Object> decoder) throws IOException {
+        this(path, decoder, 64 << 20);
+    }
+
+    /**
+     * The constructor.
+     *
+     * @param path The path of the file.
+     * @param decoder The decoder of the payload to the value.
+     * @param windowSize The size of the mapped window.
+     * @throws IOException Failed to open the file.
+     */
+    public MappedArrivalSource(Path path, Function<ByteBuffer, Object> decoder, int windowSize) throws IOException {
+        if (windowSize < HEADER_SIZE) {
+            throw new IllegalArgumentException("windowSize(=" + windowSize + ") must be >= " + HEADER_SIZE);
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.decoder = decoder;
+        this.fileSize = this.channel.size();
+        this.windowSize = windowSize;
+        this.windowStart = 0;
+        this.time = Long.MIN_VALUE;
+    }
+
+    /**
+     * Returns the number of arrivals read.
+     *
+     * @return The number of arrivals.
+     */
+    public long getCount() {
+        return this.count;
+    }
+
+    /**
+     * Moves to the next arrival.
+     *
+     * @return False if there is no more arrival or the source is closed.
+     */
+    @Override
+    public boolean next() {
+        if (this.closed) {
+            return false;
+        }
+        long position = this.window == null ? 0 : this.windowStart + this.window.position();
+        if (position + HEADER_SIZE > this.fileSize) {
+            return false;
+        }
+        ensure(position, HEADER_SIZE);
+        long t = this.window.getLong();
+        int level = this.window.get();
+        int length = this.window.getInt();
+        if (t < this.time) {
+            throw new IllegalStateException(String.format("arrival(=%s) at %s is earlier than %s", this.count, t, this.time));
+        }
+        if (level < 0 || level >= PRIORITIES.length || length < 0 || position + HEADER_SIZE + length > this.fileSize) {
+            throw new IllegalStateException(String.format("arrival(=%s) is broken", this.count));
+        }
+        ensure(position + HEADER_SIZE, length);
+
+        ByteBuffer payload = this.window.slice();
+        payload.limit(length);
+        this.window.position(this.window.position() + length);
+
+        this.time = t;
+        this.priority = PRIORITIES[level];
+        this.value = this.decoder.apply(payload);
+        this.count++;
+        return true;
+    }
+
+    @Override
+    public long getTime() {
+        return this.time;
+    }
+
+    @Override
+    public PriorityType getPriority() {
+        return this.priority;
+    }
+
+    @Override
+    public Object getValue() {
+        return this.value;
+    }
+
+    @Override
+    public void close() {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        this.window = null;
+        try {
+            this.channel.close();
+        }
+        catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Maps the window if the bytes are not in the current one.
+     *
+     * @param position The position in the file.
+     * @param length The number of bytes.
+     */
+    private void ensure(long position, int length) {
+        if (this.window != null
+                && position >= this.windowStart
+                && position + length <= this.windowStart + this.window.limit()) {
+            this.window.position((int) (position - this.windowStart));
+            return;
+        }
+        if (length > this.windowSize) {
+            throw new IllegalStateException(String.format("arrival(=%s) is larger than the window", this.count));
+        }
+        try {
+            long size = Math.min(this.windowSize, this.fileSize - position);
+            this.window = this.channel.map(MapMode.READ_ONLY, position, size);
+            this.windowStart = position;
+        }
+        catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static Object bytes(ByteBuffer payload) {
+        byte[] bytes = new byte[payload.remaining()];
+        payload.get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,5 @@
+/**
+ * The implementation of arrival sources.
+ * 
+ */
+package uia.sim.arrivals;
@@ -2,6 +2,7 @@ package uia.sim.events;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 
 import uia.sim.Env;
 import uia.sim.Event;
@@ -14,6 +15,10 @@ import uia.sim.Event;
  */
 public class AnyOf extends Condition {
 
+    private boolean cancelLosers;
+
+    private Consumer<Event> cancelLosersCallable;
+
     /**
      * The constructor.
      *
@@ -22,7 +27,44 @@ public class AnyOf extends Condition {
      * @param events The events used to check pass or not.
      */
     public AnyOf(Env env, String id, List<Event> events) {
+        this(env, id, events, false);
+    }
+
+    /**
+     * The constructor.
+     *
+     * @param env The environment.
+     * @param id The event id.
+     * @param events The events used to check pass or not.
+     * @param cancelLosers Cancels the timeouts not processed when this condition is processed.
+     */
+    public AnyOf(Env env, String id, List<Event> events, boolean cancelLosers) {
         super(env, id, events);
+        setCancelLosers(cancelLosers);
+    }
+
+    /**
+     * Tests if the timeouts not processed are cancelled when this condition is processed.
+     *
+     * @return Cancel or not.
+     */
+    public boolean isCancelLosers() {
+        return this.cancelLosers;
+    }
+
+    /**
+     * Sets if the timeouts not processed are cancelled when this condition is processed.<br>
+     * Don't cancel the losers if they are shared with other conditions or processes.
+     *
+     * @param cancelLosers Cancel or not.
+     */
+    public void setCancelLosers(boolean cancelLosers) {
+        this.cancelLosers = cancelLosers;
+        // the callable is added only when required.
+        if (cancelLosers && this.cancelLosersCallable == null && !isProcessed()) {
+            this.cancelLosersCallable = this::cancelLosers;
+            addCallable(this.cancelLosersCallable);
+        }
     }
 
     @Override
@@ -41,6 +83,17 @@ public class AnyOf extends Condition {
         return "AnyOf(" + getId() + ")";
     }
 
+    private void cancelLosers(Event event) {
+        if (!this.cancelLosers || !event.isOk()) {
+            return;
+        }
+        for (Event e : getEvents()) {
+            if (e instanceof Timeout && !e.isProcessed()) {
+                e.cancel();
+            }
+        }
+    }
+
     @Override
     protected boolean evaluate(List<Event> events) {
         return events.stream()
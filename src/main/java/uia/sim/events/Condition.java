@@ -46,6 +46,8 @@ public abstract class Condition extends Event {
             // after it has been processed.
             addCallable(this::buildValue);
             for (Event event : this.events) {
+                // the events are kept by the condition.
+                event.pin();
                 if (event.isProcessed()) {
                     // Check if the condition is pass immediately.
                     check(event);
@@ -59,6 +61,15 @@ public abstract class Condition extends Event {
         }
     }
 
+    /**
+     * Returns the events used to check pass or not.
+     *
+     * @return The events.
+     */
+    protected List<Event> getEvents() {
+        return this.events;
+    }
+
     /**
      * NG this condition will transmit the status to the nest conditions.
      *
@@ -1,9 +1,10 @@
 package uia.sim.events;
 
 import uia.sim.Event;
+import uia.sim.EventPool;
 
 /**
- * Immediately schedules an Initialize event to startup the process.<br>
+ * Schedules an Initialize event to startup the process, immediately or after a delay.<br>
  * 
  * This event is automatically triggered when it is created.
  *
@@ -12,13 +13,45 @@ import uia.sim.Event;
  */
 public final class Initialize extends Event {
 
-    private final Process process;
+    private Process process;
 
     protected Initialize(Process process) {
+        this(process, 0);
+    }
+
+    protected Initialize(Process process, long delay) {
         super(process.getEnv(), "Initialize", null);
+        start(process, delay);
+    }
+
+    /**
+     * Creates an Initialize event, the event is reused from the pool of the environment if the pool is used.
+     *
+     * @param process The process.
+     * @param delay The delay time to start the process.
+     * @return The event.
+     */
+    static Initialize create(Process process, long delay) {
+        EventPool pool = process.getEnv().getPool();
+        if (pool == null) {
+            return new Initialize(process, delay);
+        }
+        Initialize init = pool.poll(Initialize.class);
+        if (init == null) {
+            init = new Initialize(process, delay);
+            init.pooled();
+        }
+        else {
+            init.reuse("Initialize", null);
+            init.start(process, delay);
+        }
+        return init;
+    }
+
+    private void start(Process process, long delay) {
         this.process = process;
         this.process.bind(this);
-        env.schedule(this, PriorityType.URGENT);
+        this.env.schedule(this, PriorityType.URGENT, delay);
     }
 
     @Override
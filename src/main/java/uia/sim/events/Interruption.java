@@ -1,6 +1,7 @@
 package uia.sim.events;
 
 import uia.sim.Event;
+import uia.sim.EventPool;
 import uia.sim.SimEventException;
 
 /**
@@ -13,7 +14,7 @@ import uia.sim.SimEventException;
  */
 public class Interruption extends Event {
 
-    private final Process process;
+    private Process process;
 
     /**
      * <b>Schedules</b> a interruption event into environment.
@@ -40,11 +41,29 @@ public class Interruption extends Event {
         if (process.isTriggered()) {
             throw new SimEventException(process, "The process has terminated and cannot be interrupted.");
         }
-        return new Interruption(process, new SimEventException(process, cause));
+        SimEventException ex = new SimEventException(process, cause);
+        EventPool pool = process.getEnv().getPool();
+        if (pool == null) {
+            return new Interruption(process, ex);
+        }
+        Interruption interruption = pool.poll(Interruption.class);
+        if (interruption == null) {
+            interruption = new Interruption(process, ex);
+            interruption.pooled();
+        }
+        else {
+            interruption.reuse("Interruption", ex);
+            interruption.start(process);
+        }
+        return interruption;
     }
 
     private Interruption(Process process, Exception cause) {
         super(process.getEnv(), "Interruption", cause);
+        start(process);
+    }
+
+    private void start(Process process) {
         this.process = process;
         addCallable(this::interrupt);
         ng();
@@ -1,17 +1,15 @@
 package uia.sim.events;
 
-import java.util.UUID;
 import java.util.function.Consumer;
 
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
-
+import uia.cor.Carrier;
 import uia.cor.Generator2Way;
 import uia.cor.Yield2Way;
 import uia.cor.Yieldable2Way;
 import uia.sim.Env;
 import uia.sim.Event;
 import uia.sim.SimEventException;
+import uia.sim.Tracer;
 
 /**
  * Process controller.<br>
@@ -24,13 +22,11 @@ import uia.sim.SimEventException;
  */
 public class Process extends Event {
 
-    private static final Logger logger = LogManager.getLogger(Process.class);
-
     private final Generator2Way<Event, Object> taskGen;
 
-    private final Consumer<Event> resumeCallable;
+    protected final Consumer<Event> resumeCallable;
 
-    private Event target;
+    protected Event target;
 
     /**
      * The constructor.
@@ -40,10 +36,39 @@ public class Process extends Event {
      * @param taskRunner The task to be executed.
      */
     public Process(Env env, String eventId, Consumer<Yield2Way<Event, Object>> taskRunner) {
+        this(env, eventId, env.getCarrier(0), taskRunner);
+    }
+
+    /**
+     * The constructor.
+     *
+     * @param env The environment.
+     * @param eventId The event id.
+     * @param carrier The carrier to start the thread of the task.
+     * @param taskRunner The task to be executed.
+     */
+    public Process(Env env, String eventId, Carrier carrier, Consumer<Yield2Way<Event, Object>> taskRunner) {
+        this(env, eventId, carrier, 0, taskRunner);
+    }
+
+    /**
+     * The constructor.<br>
+     *
+     * <p>
+     * The thread of the task is not created until the process starts.
+     * </p>
+     *
+     * @param env The environment.
+     * @param eventId The event id.
+     * @param carrier The carrier to start the thread of the task.
+     * @param delay The delay time to start the process.
+     * @param taskRunner The task to be executed.
+     */
+    public Process(Env env, String eventId, Carrier carrier, long delay, Consumer<Yield2Way<Event, Object>> taskRunner) {
         super(env, eventId);
-        this.taskGen = Yield2Way.accept(eventId, taskRunner);
-        this.resumeCallable = this::resume;
-        this.target = new Initialize(this);	// used to startup the resume()
+        this.taskGen = Yield2Way.accept(eventId, carrier, taskRunner);
+        this.resumeCallable = new Resume();
+        this.target = Initialize.create(this, delay);	// used to startup the resume()
     }
 
     /**
@@ -55,9 +80,26 @@ public class Process extends Event {
      */
     public Process(Env env, String eventId, Yieldable2Way<Event, Object> taskRunner) {
         super(env, eventId);
-        this.taskGen = Yield2Way.accept(eventId, taskRunner);
-        this.resumeCallable = this::resume;
-        this.target = new Initialize(this);	// used to startup the resume()
+        this.taskGen = Yield2Way.accept(eventId, env.getCarrier(0), taskRunner);
+        this.resumeCallable = new Resume();
+        this.target = Initialize.create(this, 0);	// used to startup the resume()
+    }
+
+    /**
+     * The constructor for the processes which are not driven by a generator.<br>
+     *
+     * <p>
+     * The sub class must override <b>resume</b> and <b>isAlive</b>.
+     * </p>
+     *
+     * @param env The environment.
+     * @param eventId The event id.
+     */
+    protected Process(Env env, String eventId) {
+        super(env, eventId);
+        this.taskGen = null;
+        this.resumeCallable = new Resume();
+        this.target = Initialize.create(this, 0);	// used to startup the resume()
     }
 
     /**
@@ -70,7 +112,9 @@ public class Process extends Event {
      * @param cause The cause to interrupt this process.
      */
     public void interrupt(Exception cause) {
-        logger.debug(String.format("%s> interrupt", getId()));
+        if (this.env.getTracer() != null) {
+            this.env.getTracer().onInterrupt(this, cause);
+        }
         Interruption.schedule(this, cause);
     }
 
@@ -84,7 +128,9 @@ public class Process extends Event {
      * @param cause The cause to interrupt this process.
      */
     public void interrupt(String cause) {
-        logger.debug(String.format("%s> interrupt", getId()));
+        if (this.env.getTracer() != null) {
+            this.env.getTracer().onInterrupt(this, cause);
+        }
         Interruption.schedule(this, cause);
     }
 
@@ -139,21 +185,30 @@ public class Process extends Event {
      *
      * @param by The event which resumes the process.
      */
-    public synchronized void resume(Event by) {
+    public void resume(Event by) {
+        if (this.env.isSingleThreaded()) {
+            doResume(by);
+            return;
+        }
+        synchronized (this) {
+            doResume(by);
+        }
+    }
+
+    private void doResume(Event by) {
+        Tracer tracer = this.env.getTracer();
+        if (tracer != null) {
+            tracer.onResume(this, by);
+        }
         if (this.taskGen.isClosed()) {
-            logger.debug(String.format("%4d> %s> resume(closed), by %s", this.env.getNow(), getId(), by.toFullString()));
             return;
         }
 
         if (by.isEnvDown()) {
-            logger.debug(String.format("%4d> %s> resume(envDown), by %s", this.env.getNow(), getId(), by.toFullString()));
             this.taskGen.stop(new InterruptedException("envDown"));
             return;
         }
 
-        final String tx = UUID.randomUUID().toString().substring(0, 6);
-        logger.debug(String.format("%4d> %s> resume(%s), by %s", this.env.getNow(), getId(), tx, by.toFullString()));
-
         this.env.setActiveProcess(this);
         Event event = by;
         boolean next = true;
@@ -182,25 +237,28 @@ public class Process extends Event {
             }
             if (next) {
                 event = this.taskGen.getValue();
+                if (tracer != null) {
+                    tracer.onYield(this, event);
+                }
                 // check if event is processed or not.
-                if (!event.isProcessed()) {
+                if (event.isWaitable()) {
                     // key point: hook a callable pointer in the event.
                     event.addCallable(this.resumeCallable);
-                    logger.debug(String.format("%4d> %s> resume(%s), %s, blocking", this.env.getNow(), getId(), tx, event));
 
                     // next is still true here.
                     break;
                 }
-                else {
-                    logger.debug(String.format("%4d> %s> resume(%s), %s, processed", this.env.getNow(), getId(), tx, event));
-                }
             }
         }
         this.target = event;
         this.env.setActiveProcess(null);
 
         if (!next) {
-            logger.info(String.format("%4d> %s> will be closed", this.env.getNow(), this, tx));
+            // the target is kept after the process is finished.
+            event.pin();
+            if (tracer != null) {
+                tracer.onDone(this);
+            }
             succeed(this.taskGen.getFinalResult());
         }
     }
@@ -209,4 +267,23 @@ public class Process extends Event {
     public String toString() {
         return "Proc(" + getId() + ")";
     }
+
+    /**
+     * The callable resuming the process. The process is interrupted if the event it waits is cancelled.
+     *
+     * @author Kan
+     *
+     */
+    private class Resume implements Event.Waiting {
+
+        @Override
+        public void accept(Event by) {
+            resume(by);
+        }
+
+        @Override
+        public void cancelled(Event event) {
+            interrupt(event.getId() + " cancelled");
+        }
+    }
 }
@@ -0,0 +1,101 @@
+package uia.sim.events;
+
+import uia.sim.Env;
+import uia.sim.Event;
+
+/**
+ * The re-armable event. It is re-armed after processed and could be triggered again.<br>
+ *
+ * <p>
+ * The processes waiting the signal are resumed when the signal is processed. A process waits the signal again
+ * while it is processed waits the next time, one signal serves all the cycles of a bell, a clock or a sampling loop.
+ * The failure of the signal is passed to the processes waiting it, the environment does not raise it.
+ * </p>
+ *
+ * <p>
+ * A periodic signal schedules itself every <b>period</b> until it is cancelled. The conditions see the signal processed
+ * only while it is processed.
+ * </p>
+ *
+ * @author Kan
+ *
+ */
+public class Signal extends Event {
+
+    private final long period;
+
+    private long count;
+
+    /**
+     * The constructor. Invoke succeed() or fail() to trigger it every time.
+     *
+     * @param env The environment.
+     * @param id The event id.
+     */
+    public Signal(Env env, String id) {
+        super(env, id);
+        this.period = 0;
+    }
+
+    /**
+     * The constructor of the periodic signal, <b>schedule</b> itself every <b>period</b>.
+     *
+     * @param env The environment.
+     * @param id The event id.
+     * @param period The period.
+     */
+    public Signal(Env env, String id, long period) {
+        super(env, id, null);
+        if (period < 1) {
+            throw new IllegalArgumentException("period(=" + period + ") must be >= 1");
+        }
+        this.period = period;
+        env.schedule(this, PriorityType.NORMAL, period);
+    }
+
+    /**
+     * Returns the period. 0 if the signal is not periodic.
+     *
+     * @return The period.
+     */
+    public long getPeriod() {
+        return this.period;
+    }
+
+    /**
+     * Returns the number of the times processed, the environment down is not counted.
+     *
+     * @return The number of the times.
+     */
+    public long getCount() {
+        return this.count;
+    }
+
+    @Override
+    public boolean isWaitable() {
+        return !isCancelled();
+    }
+
+    /**
+     * Executes the callables added before and re-arms the signal. A periodic signal is scheduled again.
+     *
+     */
+    @Override
+    public void callback() {
+        boolean down = isEnvDown();
+        callbackAndRearm();
+        if (down) {
+            return;
+        }
+        this.count++;
+        if (this.period > 0 && !isCancelled()) {
+            setValue(null);
+            this.env.schedule(this, PriorityType.NORMAL, this.period);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Signal(" + getId() + ")";
+    }
+}
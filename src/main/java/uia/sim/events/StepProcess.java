@@ -0,0 +1,136 @@
+package uia.sim.events;
+
+import java.util.function.Function;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import uia.sim.Env;
+import uia.sim.Event;
+import uia.sim.Tracer;
+
+/**
+ * Process controller without a thread.<br>
+ *
+ * <p>
+ * The process is driven by a step function which keeps its own state.
+ * The function gets the event which resumes the process and returns the next event to wait for,
+ * or null to terminate the process. The function is executed inline when the environment processes the event.
+ * </p>
+ *
+ * <p>
+ * The first event is the Initialize event. If the event is not ok (failed or interrupted),
+ * the value of the event is the cause.
+ * </p>
+ *
+ * @author Kan
+ *
+ */
+public class StepProcess extends Process {
+
+    private static final Logger logger = LogManager.getLogger(StepProcess.class);
+
+    private final Function<Event, Event> step;
+
+    private boolean closed;
+
+    private Object finalResult;
+
+    /**
+     * The constructor.
+     *
+     * @param env The environment.
+     * @param eventId The event id.
+     * @param step The step function.
+     */
+    public StepProcess(Env env, String eventId, Function<Event, Event> step) {
+        super(env, eventId);
+        this.step = step;
+        this.closed = false;
+    }
+
+    /**
+     * Sets the value of the process when the step function returns null.
+     *
+     * @param finalResult The value.
+     */
+    public void setFinalResult(Object finalResult) {
+        this.finalResult = finalResult;
+    }
+
+    @Override
+    public boolean isAlive() {
+        return !this.closed;
+    }
+
+    /**
+     * Resumes to execute the step function until it returns an event which is not processed.
+     *
+     * @param by The event which resumes the process.
+     */
+    @Override
+    public void resume(Event by) {
+        if (this.env.isSingleThreaded()) {
+            doResume(by);
+            return;
+        }
+        synchronized (this) {
+            doResume(by);
+        }
+    }
+
+    private void doResume(Event by) {
+        Tracer tracer = this.env.getTracer();
+        if (tracer != null) {
+            tracer.onResume(this, by);
+        }
+        if (this.closed) {
+            return;
+        }
+
+        if (by.isEnvDown()) {
+            this.closed = true;
+            return;
+        }
+
+        this.env.setActiveProcess(this);
+        Event event = by;
+        Event next;
+        while (true) {
+            if (!event.isOk()) {
+                event.defused();
+            }
+            try {
+                next = this.step.apply(event);
+            }
+            catch (Exception ex) {
+                logger.error(String.format("%4d> %s> step failed, %s", this.env.getTime(), getId(), ex.getMessage()), ex);
+                next = null;
+            }
+            if (next == null) {
+                break;
+            }
+            if (tracer != null) {
+                tracer.onYield(this, next);
+            }
+            if (next.isWaitable()) {
+                // key point: hook a callable pointer in the event.
+                next.addCallable(this.resumeCallable);
+                break;
+            }
+            event = next;
+        }
+        this.target = next == null ? event : next;
+        this.env.setActiveProcess(null);
+
+        if (next == null) {
+            // the target is kept after the process is finished.
+            event.pin();
+            this.closed = true;
+            if (tracer != null) {
+                tracer.onDone(this);
+            }
+            succeed(this.finalResult);
+        }
+    }
+}
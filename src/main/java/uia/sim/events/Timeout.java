@@ -2,6 +2,7 @@ package uia.sim.events;
 
 import uia.sim.Env;
 import uia.sim.Event;
+import uia.sim.EventPool;
 
 /**
  * The event gets triggered after a *delay* has passed.<br>
@@ -13,14 +14,16 @@ import uia.sim.Event;
  */
 public class Timeout extends Event {
 
+    private long delay;
+
     /**
      * The constructor <b>schedule</b> itself for processing by the environment automatically.
      *
      * @param env The environment.
      * @param delay The delay time.
      */
-    public Timeout(Env env, int delay) {
-        this(env, "delay" + delay, delay, null);
+    public Timeout(Env env, long delay) {
+        this(env, null, delay, null);
     }
 
     /**
@@ -30,7 +33,7 @@ public class Timeout extends Event {
      * @param id The event id.
      * @param delay The delay time.
      */
-    public Timeout(Env env, String id, int delay) {
+    public Timeout(Env env, String id, long delay) {
         this(env, id, delay, null);
     }
 
@@ -38,17 +41,74 @@ public class Timeout extends Event {
      * The constructor <b>schedule</b> itself for processing by the environment automatically.
      *
      * @param env The environment.
+     * @param id The event id. Null means "delay" + delay, the id is built when it is used.
+     * @param delay The delay time.
+     * @param value The value of the event.
+     */
+    public Timeout(Env env, String id, long delay, Object value) {
+        this(env, id, delay, value, true);
+    }
+
+    /**
+     * The constructor.
+     *
+     * @param env The environment.
      * @param id The event id.
      * @param delay The delay time.
      * @param value The value of the event.
+     * @param schedule <b>Schedule</b> itself or not. False if the caller schedules it, e.g. Env.scheduleAll().
      */
-    public Timeout(Env env, String id, int delay, Object value) {
+    public Timeout(Env env, String id, long delay, Object value, boolean schedule) {
         super(env, id, value);
-        env.schedule(this, PriorityType.NORMAL, delay);
+        this.delay = delay;
+        if (schedule) {
+            env.schedule(this, PriorityType.NORMAL, delay);
+        }
+    }
+
+    /**
+     * Creates a timeout and <b>schedule</b> it, the timeout is reused from the pool of the environment if the pool is used.
+     *
+     * @param env The environment.
+     * @param id The event id. Null means "delay" + delay, the id is built when it is used.
+     * @param delay The delay time.
+     * @param value The value of the event.
+     * @return The timeout.
+     */
+    public static Timeout create(Env env, String id, long delay, Object value) {
+        EventPool pool = env.getPool();
+        if (pool == null) {
+            return new Timeout(env, id, delay, value);
+        }
+        Timeout timeout = pool.poll(Timeout.class);
+        if (timeout == null) {
+            timeout = new Timeout(env, id, delay, value, false);
+            timeout.pooled();
+        }
+        else {
+            timeout.reuse(id, value);
+            timeout.delay = delay;
+        }
+        env.schedule(timeout, PriorityType.NORMAL, delay);
+        return timeout;
+    }
+
+    /**
+     * Returns the delay time.
+     *
+     * @return The delay time.
+     */
+    public long getDelay() {
+        return this.delay;
+    }
+
+    @Override
+    public String getId() {
+        return this.id == null ? "delay" + this.delay : this.id;
     }
 
     @Override
     public String toString() {
-        return String.format("Timeout(%s)", this.id);
+        return String.format("Timeout(%s)", getId());
     }
 }
@@ -0,0 +1,79 @@
+package uia.sim.queues;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.function.Predicate;
+
+import uia.sim.Env.Job;
+import uia.sim.EventQueue;
+
+/**
+ * The event queue backed by a PriorityBlockingQueue, the queue used before the EventQueue was introduced.<br>
+ *
+ * <p>
+ * Thread-safe. Use it if jobs are scheduled by the threads outside the environment.
+ * </p>
+ *
+ * @author Kan
+ *
+ */
+public class BlockingPriorityQueue implements EventQueue {
+
+    private final PriorityBlockingQueue<Job> jobs;
+
+    /**
+     * The constructor.
+     *
+     */
+    public BlockingPriorityQueue() {
+        this.jobs = new PriorityBlockingQueue<>();
+    }
+
+    @Override
+    public void add(Job job) {
+        this.jobs.add(job);
+    }
+
+    @Override
+    public void addAll(Collection<Job> jobs) {
+        this.jobs.addAll(jobs);
+    }
+
+    @Override
+    public Job poll() {
+        return this.jobs.poll();
+    }
+
+    @Override
+    public Job peek() {
+        return this.jobs.peek();
+    }
+
+    @Override
+    public int size() {
+        return this.jobs.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.jobs.isEmpty();
+    }
+
+    @Override
+    public int removeIf(Predicate<Job> filter) {
+        int size = this.jobs.size();
+        this.jobs.removeIf(filter);
+        return size - this.jobs.size();
+    }
+
+    @Override
+    public Iterator<Job> iterator() {
+        return this.jobs.iterator();
+    }
+
+    @Override
+    public String toString() {
+        return this.jobs.toString();
+    }
+}
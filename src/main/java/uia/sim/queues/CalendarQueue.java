@@ -0,0 +1,380 @@
+package uia.sim.queues;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+import uia.sim.Env.Job;
+import uia.sim.EventQueue;
+
+/**
+ * The calendar queue, O(1) amortized add() and poll() for large future-event sets.<br>
+ *
+ * <p>
+ * The time is divided into days of <b>width</b> ticks, the days are mapped to the buckets like a calendar of one year.
+ * Each bucket keeps its jobs sorted by Job.compareTo(), so the jobs of the same time are in the same bucket and
+ * the order of time, priority and sequence number is kept exactly. poll() visits the buckets day by day from the
+ * current one, and looks for the first job directly if the whole year is empty.
+ * </p>
+ *
+ * <p>
+ * The number of buckets is doubled when the size is more than twice of it and halved when less than half of it.
+ * The width is estimated from the gaps between the first jobs every time the buckets are resized.
+ * </p>
+ *
+ * <p>
+ * Not thread-safe.
+ * </p>
+ *
+ * @author Kan
+ *
+ */
+public class CalendarQueue implements EventQueue {
+
+    private static final int MIN_BUCKETS = 16;
+
+    private static final int SAMPLES = 25;
+
+    private Job[][] buckets;
+
+    private int[] heads;
+
+    private int[] tails;
+
+    private int mask;
+
+    private long width;
+
+    private int size;
+
+    private int lastBucket;
+
+    private long lastTime;
+
+    private long bucketTop;
+
+    private boolean located;
+
+    /**
+     * The constructor.
+     *
+     */
+    public CalendarQueue() {
+        this(MIN_BUCKETS, 1);
+    }
+
+    /**
+     * The constructor.
+     *
+     * @param buckets The initial number of buckets, rounded up to a power of 2.
+     * @param width The initial width of a bucket.
+     */
+    public CalendarQueue(int buckets, int width) {
+        int n = MIN_BUCKETS;
+        while (n < buckets) {
+            n <<= 1;
+        }
+        init(n, Math.max(1, width), 0);
+    }
+
+    /**
+     * Returns the number of buckets.
+     *
+     * @return The number of buckets.
+     */
+    public int getBuckets() {
+        return this.buckets.length;
+    }
+
+    /**
+     * Returns the width of a bucket.
+     *
+     * @return The width.
+     */
+    public long getWidth() {
+        return this.width;
+    }
+
+    @Override
+    public void add(Job job) {
+        long t = job.time;
+        if (t < this.lastTime) {
+            // earlier than the current day, moves the calendar back.
+            moveTo(t);
+            this.located = false;
+        }
+        // a job of the same time as the first one goes to the same bucket, the located bucket is still valid.
+        insert(job);
+        this.size++;
+        if (this.size > (this.buckets.length << 1)) {
+            resize(this.buckets.length << 1);
+        }
+    }
+
+    @Override
+    public Job poll() {
+        if (this.size == 0) {
+            return null;
+        }
+        locate();
+        int b = this.lastBucket;
+        Job[] items = this.buckets[b];
+        Job job = items[this.heads[b]];
+        items[this.heads[b]++] = null;
+        if (this.heads[b] == this.tails[b]) {
+            this.heads[b] = 0;
+            this.tails[b] = 0;
+        }
+        this.size--;
+        this.located = false;
+        if (this.buckets.length > MIN_BUCKETS && this.size < (this.buckets.length >> 1)) {
+            resize(this.buckets.length >> 1);
+        }
+        return job;
+    }
+
+    @Override
+    public Job peek() {
+        if (this.size == 0) {
+            return null;
+        }
+        locate();
+        return this.buckets[this.lastBucket][this.heads[this.lastBucket]];
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public int removeIf(Predicate<Job> filter) {
+        int removed = 0;
+        for (int b = 0; b < this.buckets.length; b++) {
+            Job[] items = this.buckets[b];
+            int n = this.heads[b];
+            for (int i = this.heads[b]; i < this.tails[b]; i++) {
+                if (!filter.test(items[i])) {
+                    items[n++] = items[i];
+                }
+            }
+            if (n < this.tails[b]) {
+                removed += this.tails[b] - n;
+                Arrays.fill(items, n, this.tails[b], null);
+                this.tails[b] = n;
+                if (this.heads[b] == n) {
+                    this.heads[b] = 0;
+                    this.tails[b] = 0;
+                }
+            }
+        }
+        if (removed > 0) {
+            this.size -= removed;
+            this.located = false;
+            while (this.buckets.length > MIN_BUCKETS && this.size < (this.buckets.length >> 1)) {
+                resize(this.buckets.length >> 1);
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Returns the iterator of the jobs in the bucket order, not the scheduling order.
+     *
+     */
+    @Override
+    public Iterator<Job> iterator() {
+        return new Iterator<Job>() {
+
+            private int b = 0;
+
+            private int i = CalendarQueue.this.heads[0];
+
+            @Override
+            public boolean hasNext() {
+                while (this.b < CalendarQueue.this.buckets.length) {
+                    if (this.i < CalendarQueue.this.tails[this.b]) {
+                        return true;
+                    }
+                    this.b++;
+                    if (this.b < CalendarQueue.this.buckets.length) {
+                        this.i = CalendarQueue.this.heads[this.b];
+                    }
+                }
+                return false;
+            }
+
+            @Override
+            public Job next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return CalendarQueue.this.buckets[this.b][this.i++];
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (Job job : this) {
+            if (sb.length() > 1) {
+                sb.append(", ");
+            }
+            sb.append(job);
+        }
+        return sb.append("]").toString();
+    }
+
+    /**
+     * Moves the calendar to the bucket of the first job.
+     *
+     */
+    private void locate() {
+        if (this.located) {
+            return;
+        }
+        int b = this.lastBucket;
+        long top = this.bucketTop;
+        for (int n = 0; n < this.buckets.length; n++) {
+            if (this.heads[b] < this.tails[b] && this.buckets[b][this.heads[b]].time < top) {
+                this.lastBucket = b;
+                this.bucketTop = top;
+                this.lastTime = this.buckets[b][this.heads[b]].time;
+                this.located = true;
+                return;
+            }
+            b = (b + 1) & this.mask;
+            top += this.width;
+        }
+
+        // the year is empty, looks for the first job directly.
+        Job first = null;
+        for (int i = 0; i < this.buckets.length; i++) {
+            if (this.heads[i] < this.tails[i]) {
+                Job job = this.buckets[i][this.heads[i]];
+                if (first == null || job.compareTo(first) < 0) {
+                    first = job;
+                }
+            }
+        }
+        moveTo(first.time);
+        this.located = true;
+    }
+
+    private void moveTo(long time) {
+        this.lastTime = time;
+        this.lastBucket = bucketOf(time);
+        this.bucketTop = (time / this.width + 1) * this.width;
+    }
+
+    private int bucketOf(long time) {
+        return (int) ((time / this.width) & this.mask);
+    }
+
+    private void insert(Job job) {
+        int b = bucketOf(job.time);
+        Job[] items = this.buckets[b];
+        int head = this.heads[b];
+        int tail = this.tails[b];
+        if (items == null) {
+            items = new Job[4];
+            this.buckets[b] = items;
+        }
+        else if (tail == items.length) {
+            if (head > 0) {
+                System.arraycopy(items, head, items, 0, tail - head);
+                Arrays.fill(items, tail - head, tail, null);
+                tail -= head;
+                head = 0;
+                this.heads[b] = 0;
+            }
+            else {
+                items = Arrays.copyOf(items, items.length << 1);
+                this.buckets[b] = items;
+            }
+        }
+
+        // most jobs are the last one in the bucket, otherwise searches the position.
+        int i = tail;
+        if (i > head && job.compareTo(items[i - 1]) < 0) {
+            int lo = head;
+            int hi = tail - 1;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (job.compareTo(items[mid]) < 0) {
+                    hi = mid;
+                }
+                else {
+                    lo = mid + 1;
+                }
+            }
+            i = lo;
+        }
+        if (i < tail) {
+            System.arraycopy(items, i, items, i + 1, tail - i);
+        }
+        items[i] = job;
+        this.tails[b] = tail + 1;
+    }
+
+    private void resize(int n) {
+        // the first jobs in order to estimate the width.
+        int sampleSize = Math.min(this.size, SAMPLES);
+        Job[] all = new Job[this.size];
+        for (int i = 0; i < sampleSize; i++) {
+            locate();
+            int b = this.lastBucket;
+            all[i] = this.buckets[b][this.heads[b]];
+            this.buckets[b][this.heads[b]++] = null;
+            this.located = false;
+        }
+        int k = sampleSize;
+        for (int b = 0; b < this.buckets.length; b++) {
+            for (int i = this.heads[b]; i < this.tails[b]; i++) {
+                all[k++] = this.buckets[b][i];
+            }
+        }
+
+        long w = estimateWidth(all, sampleSize);
+        init(n, w, all.length == 0 ? this.lastTime : all[0].time);
+        for (Job job : all) {
+            insert(job);
+        }
+        this.size = all.length;
+    }
+
+    private long estimateWidth(Job[] sample, int count) {
+        if (count < 2) {
+            return this.width;
+        }
+        long total = sample[count - 1].time - sample[0].time;
+        if (total == 0) {
+            return this.width;
+        }
+        // ignores the large gaps and uses 3 times of the average.
+        double avg = (double) total / (count - 1);
+        long sum = 0;
+        int gaps = 0;
+        for (int i = 1; i < count; i++) {
+            long gap = sample[i].time - sample[i - 1].time;
+            if (gap <= 2 * avg) {
+                sum += gap;
+                gaps++;
+            }
+        }
+        double avg2 = gaps == 0 ? avg : (double) sum / gaps;
+        return Math.max(1, (long) Math.ceil(3 * avg2));
+    }
+
+    private void init(int n, long w, long time) {
+        this.buckets = new Job[n][];
+        this.heads = new int[n];
+        this.tails = new int[n];
+        this.mask = n - 1;
+        this.width = w;
+        this.located = false;
+        moveTo(time);
+    }
+}
@@ -0,0 +1,257 @@
+package uia.sim.queues;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+import uia.sim.Env.Job;
+import uia.sim.EventQueue;
+
+/**
+ * The array-backed d-ary heap. The default timed queue of the FastLaneQueue.<br>
+ *
+ * <p>
+ * A wider heap is shallower, add() compares less and poll() compares more but with better locality.
+ * The arity 4 is a good choice for most models.
+ * </p>
+ *
+ * <p>
+ * The keys are kept in the primitive arrays alongside the jobs, the comparisons never touch the job objects.
+ * </p>
+ *
+ * <p>
+ * Not thread-safe.
+ * </p>
+ *
+ * @author Kan
+ *
+ */
+public class DaryHeapQueue implements EventQueue {
+
+    private final int arity;
+
+    private long[] times;
+
+    private long[] ranks;
+
+    private Job[] heap;
+
+    private int size;
+
+    /**
+     * The constructor. The arity is 4.
+     *
+     */
+    public DaryHeapQueue() {
+        this(4);
+    }
+
+    /**
+     * The constructor.
+     *
+     * @param arity The number of children of a node, at least 2.
+     */
+    public DaryHeapQueue(int arity) {
+        this(arity, 64);
+    }
+
+    /**
+     * The constructor.
+     *
+     * @param arity The number of children of a node, at least 2.
+     * @param initialCapacity The initial capacity.
+     */
+    public DaryHeapQueue(int arity, int initialCapacity) {
+        if (arity < 2) {
+            throw new IllegalArgumentException("arity(=" + arity + ") must be >= 2");
+        }
+        this.arity = arity;
+        int n = Math.max(1, initialCapacity);
+        this.times = new long[n];
+        this.ranks = new long[n];
+        this.heap = new Job[n];
+    }
+
+    /**
+     * Returns the arity.
+     *
+     * @return The number of children of a node.
+     */
+    public int getArity() {
+        return this.arity;
+    }
+
+    @Override
+    public void add(Job job) {
+        if (this.size == this.heap.length) {
+            int n = this.size << 1;
+            this.times = Arrays.copyOf(this.times, n);
+            this.ranks = Arrays.copyOf(this.ranks, n);
+            this.heap = Arrays.copyOf(this.heap, n);
+        }
+        siftUp(this.size++, job.time, job.rank, job);
+    }
+
+    /**
+     * Adds the jobs. The heap is rebuilt bottom-up once, O(n), if the jobs are more than the jobs in the heap.
+     *
+     */
+    @Override
+    public void addAll(Collection<Job> jobs) {
+        int n = this.size + jobs.size();
+        if (n > this.heap.length) {
+            int capacity = Math.max(n, this.heap.length << 1);
+            this.times = Arrays.copyOf(this.times, capacity);
+            this.ranks = Arrays.copyOf(this.ranks, capacity);
+            this.heap = Arrays.copyOf(this.heap, capacity);
+        }
+        if (jobs.size() < this.size) {
+            for (Job job : jobs) {
+                siftUp(this.size++, job.time, job.rank, job);
+            }
+            return;
+        }
+        for (Job job : jobs) {
+            this.times[this.size] = job.time;
+            this.ranks[this.size] = job.rank;
+            this.heap[this.size++] = job;
+        }
+        heapify();
+    }
+
+    @Override
+    public Job poll() {
+        if (this.size == 0) {
+            return null;
+        }
+        Job first = this.heap[0];
+        int last = --this.size;
+        Job job = this.heap[last];
+        this.heap[last] = null;
+        if (last > 0) {
+            siftDown(0, this.times[last], this.ranks[last], job);
+        }
+        return first;
+    }
+
+    @Override
+    public Job peek() {
+        return this.size == 0 ? null : this.heap[0];
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Removes the jobs matching the filter and rebuilds the heap bottom-up.
+     *
+     */
+    @Override
+    public int removeIf(Predicate<Job> filter) {
+        int n = 0;
+        for (int i = 0; i < this.size; i++) {
+            if (!filter.test(this.heap[i])) {
+                this.times[n] = this.times[i];
+                this.ranks[n] = this.ranks[i];
+                this.heap[n++] = this.heap[i];
+            }
+        }
+        int removed = this.size - n;
+        if (removed > 0) {
+            Arrays.fill(this.heap, n, this.size, null);
+            this.size = n;
+            heapify();
+        }
+        return removed;
+    }
+
+    /**
+     * Returns the iterator of the jobs in the heap order, not the scheduling order.
+     *
+     */
+    @Override
+    public Iterator<Job> iterator() {
+        return new Iterator<Job>() {
+
+            private int i;
+
+            @Override
+            public boolean hasNext() {
+                return this.i < DaryHeapQueue.this.size;
+            }
+
+            @Override
+            public Job next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return DaryHeapQueue.this.heap[this.i++];
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(Arrays.copyOf(this.heap, this.size));
+    }
+
+    private void heapify() {
+        for (int i = (this.size - 2) / this.arity; i >= 0; i--) {
+            siftDown(i, this.times[i], this.ranks[i], this.heap[i]);
+        }
+    }
+
+    private void siftUp(int index, long time, long rank, Job job) {
+        long[] ts = this.times;
+        long[] rs = this.ranks;
+        Job[] h = this.heap;
+        while (index > 0) {
+            int parent = (index - 1) / this.arity;
+            if (Job.compare(time, rank, ts[parent], rs[parent]) >= 0) {
+                break;
+            }
+            ts[index] = ts[parent];
+            rs[index] = rs[parent];
+            h[index] = h[parent];
+            index = parent;
+        }
+        ts[index] = time;
+        rs[index] = rank;
+        h[index] = job;
+    }
+
+    private void siftDown(int index, long time, long rank, Job job) {
+        long[] ts = this.times;
+        long[] rs = this.ranks;
+        Job[] h = this.heap;
+        int n = this.size;
+        while (true) {
+            int first = index * this.arity + 1;
+            if (first >= n) {
+                break;
+            }
+            // the smallest child.
+            int last = Math.min(first + this.arity, n);
+            int min = first;
+            for (int c = first + 1; c < last; c++) {
+                if (Job.compare(ts[c], rs[c], ts[min], rs[min]) < 0) {
+                    min = c;
+                }
+            }
+            if (Job.compare(time, rank, ts[min], rs[min]) <= 0) {
+                break;
+            }
+            ts[index] = ts[min];
+            rs[index] = rs[min];
+            h[index] = h[min];
+            index = min;
+        }
+        ts[index] = time;
+        rs[index] = rank;
+        h[index] = job;
+    }
+}
@@ -0,0 +1,287 @@
+package uia.sim.queues;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+import uia.sim.Env.Job;
+import uia.sim.Event.PriorityType;
+import uia.sim.EventQueue;
+
+/**
+ * The event queue with the fast lanes for the jobs at the current time. The default event queue of the environment.<br>
+ *
+ * <p>
+ * Most jobs are scheduled at the current time, such as succeed(), Initialize, Interruption and the requests of resources.
+ * They are kept in the lanes, one for each PriorityType, instead of the timed queue.
+ * A lane is an array sorted by the sequence number, a new job is appended at the tail. A job of an event created
+ * before the last one of the lane goes to the timed queue instead, a lane never shifts its jobs.
+ * poll() compares the first job of the lanes and the first job of the timed queue, the order is unchanged.
+ * </p>
+ *
+ * <p>
+ * The current time is the time of the last polled job, it only moves forward when the jobs are polled.
+ * A job later than the current time always goes to the timed queue, even if the queue is empty.
+ * </p>
+ *
+ * <p>
+ * Not thread-safe.
+ * </p>
+ *
+ * @author Kan
+ *
+ */
+public class FastLaneQueue implements EventQueue {
+
+    private final EventQueue timed;
+
+    private final Lane[] lanes;
+
+    private int laneSize;
+
+    private long now;
+
+    /**
+     * The constructor. The timed queue is a 4-ary heap.
+     *
+     */
+    public FastLaneQueue() {
+        this(new DaryHeapQueue());
+    }
+
+    /**
+     * The constructor.
+     *
+     * @param timed The queue of the jobs later than the current time.
+     */
+    public FastLaneQueue(EventQueue timed) {
+        if (timed == null || !timed.isEmpty()) {
+            throw new IllegalArgumentException("timed must be an empty queue");
+        }
+        this.timed = timed;
+        this.lanes = new Lane[PriorityType.values().length];
+        for (int i = 0; i < this.lanes.length; i++) {
+            this.lanes[i] = new Lane();
+        }
+        this.now = Long.MIN_VALUE;
+    }
+
+    /**
+     * Returns the queue of the jobs later than the current time.
+     *
+     * @return The timed queue.
+     */
+    public EventQueue getTimed() {
+        return this.timed;
+    }
+
+    @Override
+    public void add(Job job) {
+        Lane lane = this.lanes[job.priority.level];
+        if (job.time == this.now && lane.accepts(job)) {
+            lane.add(job);
+            this.laneSize++;
+        }
+        else {
+            this.timed.add(job);
+        }
+    }
+
+    @Override
+    public void addAll(Collection<Job> jobs) {
+        ArrayList<Job> rest = new ArrayList<>();
+        for (Job job : jobs) {
+            Lane lane = this.lanes[job.priority.level];
+            if (job.time == this.now && lane.accepts(job)) {
+                lane.add(job);
+                this.laneSize++;
+            }
+            else {
+                rest.add(job);
+            }
+        }
+        this.timed.addAll(rest);
+    }
+
+    @Override
+    public Job poll() {
+        Lane lane = firstLane();
+        if (lane != null) {
+            this.laneSize--;
+            return lane.poll();
+        }
+        Job job = this.timed.poll();
+        if (job != null) {
+            // the lanes are empty if the time moves, they keep the jobs of one time only.
+            this.now = job.time;
+        }
+        return job;
+    }
+
+    @Override
+    public Job peek() {
+        Lane lane = firstLane();
+        return lane != null ? lane.peek() : this.timed.peek();
+    }
+
+    @Override
+    public int size() {
+        return this.laneSize + this.timed.size();
+    }
+
+    @Override
+    public int removeIf(Predicate<Job> filter) {
+        int removed = 0;
+        for (Lane lane : this.lanes) {
+            removed += lane.removeIf(filter);
+        }
+        this.laneSize -= removed;
+        return removed + this.timed.removeIf(filter);
+    }
+
+    @Override
+    public Iterator<Job> iterator() {
+        return new Iterator<Job>() {
+
+            private int l = 0;
+
+            private int i = FastLaneQueue.this.lanes[0].head;
+
+            private Iterator<Job> rest;
+
+            @Override
+            public boolean hasNext() {
+                Lane[] lanes = FastLaneQueue.this.lanes;
+                while (this.l < lanes.length) {
+                    if (this.i < lanes[this.l].tail) {
+                        return true;
+                    }
+                    this.l++;
+                    if (this.l < lanes.length) {
+                        this.i = lanes[this.l].head;
+                    }
+                }
+                if (this.rest == null) {
+                    this.rest = FastLaneQueue.this.timed.iterator();
+                }
+                return this.rest.hasNext();
+            }
+
+            @Override
+            public Job next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return this.l < FastLaneQueue.this.lanes.length
+                        ? FastLaneQueue.this.lanes[this.l].items[this.i++]
+                        : this.rest.next();
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (Job job : this) {
+            if (sb.length() > 1) {
+                sb.append(", ");
+            }
+            sb.append(job);
+        }
+        return sb.append("]").toString();
+    }
+
+    /**
+     * Returns the lane with the first job, or null if the first job is in the timed queue.
+     *
+     * @return The lane.
+     */
+    private Lane firstLane() {
+        if (this.laneSize == 0) {
+            return null;
+        }
+        Lane first = null;
+        for (Lane lane : this.lanes) {
+            if (lane.head < lane.tail) {
+                first = lane;
+                break;
+            }
+        }
+        Job job = this.timed.peek();
+        return job == null || first.peek().compareTo(job) < 0 ? first : null;
+    }
+
+    /**
+     * The jobs of the same time and priority, sorted by the sequence number.
+     *
+     */
+    private static class Lane {
+
+        private Job[] items;
+
+        private int head;
+
+        private int tail;
+
+        Lane() {
+            this.items = new Job[16];
+        }
+
+        void add(Job job) {
+            if (this.tail == this.items.length) {
+                int n = this.tail - this.head;
+                if (n < (this.items.length >> 1)) {
+                    System.arraycopy(this.items, this.head, this.items, 0, n);
+                    Arrays.fill(this.items, n, this.tail, null);
+                }
+                else {
+                    Job[] grown = new Job[this.items.length << 1];
+                    System.arraycopy(this.items, this.head, grown, 0, n);
+                    this.items = grown;
+                }
+                this.head = 0;
+                this.tail = n;
+            }
+
+            this.items[this.tail++] = job;
+        }
+
+        int removeIf(Predicate<Job> filter) {
+            int n = this.head;
+            for (int i = this.head; i < this.tail; i++) {
+                if (!filter.test(this.items[i])) {
+                    this.items[n++] = this.items[i];
+                }
+            }
+            int removed = this.tail - n;
+            Arrays.fill(this.items, n, this.tail, null);
+            this.tail = n;
+            if (this.head == this.tail) {
+                this.head = 0;
+                this.tail = 0;
+            }
+            return removed;
+        }
+
+        boolean accepts(Job job) {
+            return this.head == this.tail || job.compareTo(this.items[this.tail - 1]) > 0;
+        }
+
+        Job peek() {
+            return this.items[this.head];
+        }
+
+        Job poll() {
+            Job job = this.items[this.head];
+            this.items[this.head++] = null;
+            if (this.head == this.tail) {
+                this.head = 0;
+                this.tail = 0;
+            }
+            return job;
+        }
+    }
+}
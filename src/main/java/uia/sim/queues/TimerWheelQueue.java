@@ -0,0 +1,353 @@
+package uia.sim.queues;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+import uia.sim.Env.Job;
+import uia.sim.EventQueue;
+import uia.sim.events.Timeout;
+
+/**
+ * The hashed hierarchical timer wheel in front of the main event queue for the timeout-heavy models.<br>
+ *
+ * <p>
+ * The jobs of Timeout events later than the current tick are kept in the wheel instead of the main queue.
+ * A tick is <b>tick</b> units of time, each level of the wheel has <b>slots</b> slots and covers <b>slots</b> times
+ * of ticks of the level below. add() puts a job into a slot directly, O(1).
+ * When the main queue has no job of the current tick, the wheel moves to the next tick and cascades the slots of the
+ * higher levels down, the jobs of the current tick are moved into the main queue. The main queue keeps the exact order
+ * of time, priority and sequence number, the order is unchanged.
+ * </p>
+ *
+ * <p>
+ * The jobs out of the range of the wheel and the jobs of other events go to the main queue directly.
+ * </p>
+ *
+ * <p>
+ * Not thread-safe.
+ * </p>
+ *
+ * @author Kan
+ *
+ */
+public class TimerWheelQueue implements EventQueue {
+
+    private final EventQueue main;
+
+    private final long tick;
+
+    private final int bits;
+
+    private final int mask;
+
+    private final Job[][][] wheel;
+
+    private final int[][] counts;
+
+    private final int[] levelSizes;
+
+    private int size;
+
+    private long current;
+
+    /**
+     * The constructor. The tick is 1, 256 slots and 4 levels.
+     *
+     */
+    public TimerWheelQueue() {
+        this(1);
+    }
+
+    /**
+     * The constructor. 256 slots and 4 levels.
+     *
+     * @param tick The time of a tick.
+     */
+    public TimerWheelQueue(long tick) {
+        this(new FastLaneQueue(), tick, 256, 4);
+    }
+
+    /**
+     * The constructor.
+     *
+     * @param main The main event queue.
+     * @param tick The time of a tick.
+     * @param slots The number of slots of a level, rounded up to a power of 2.
+     * @param levels The number of levels.
+     */
+    public TimerWheelQueue(EventQueue main, long tick, int slots, int levels) {
+        if (main == null || !main.isEmpty()) {
+            throw new IllegalArgumentException("main must be an empty queue");
+        }
+        if (tick < 1) {
+            throw new IllegalArgumentException("tick(=" + tick + ") must be >= 1");
+        }
+        if (levels < 1) {
+            throw new IllegalArgumentException("levels(=" + levels + ") must be >= 1");
+        }
+        int b = 1;
+        while ((1 << b) < slots) {
+            b++;
+        }
+        if (b * levels > 62) {
+            throw new IllegalArgumentException("slots(=" + slots + ") ^ levels(=" + levels + ") is too large");
+        }
+        this.main = main;
+        this.tick = tick;
+        this.bits = b;
+        this.mask = (1 << b) - 1;
+        this.wheel = new Job[levels][1 << b][];
+        this.counts = new int[levels][1 << b];
+        this.levelSizes = new int[levels];
+        this.current = 0;
+    }
+
+    /**
+     * Returns the main event queue.
+     *
+     * @return The main event queue.
+     */
+    public EventQueue getMain() {
+        return this.main;
+    }
+
+    /**
+     * Returns the time of a tick.
+     *
+     * @return The time.
+     */
+    public long getTick() {
+        return this.tick;
+    }
+
+    /**
+     * Returns the number of jobs in the wheel.
+     *
+     * @return The number of jobs.
+     */
+    public int getWheelSize() {
+        return this.size;
+    }
+
+    @Override
+    public void add(Job job) {
+        if (!(job.event instanceof Timeout) || !put(job)) {
+            this.main.add(job);
+        }
+    }
+
+    @Override
+    public void addAll(Collection<Job> jobs) {
+        ArrayList<Job> rest = new ArrayList<>();
+        for (Job job : jobs) {
+            if (!(job.event instanceof Timeout) || !put(job)) {
+                rest.add(job);
+            }
+        }
+        this.main.addAll(rest);
+    }
+
+    @Override
+    public Job poll() {
+        advance();
+        Job job = this.main.poll();
+        if (job != null && this.size == 0) {
+            // nothing in the wheel, moves to the tick of the current time.
+            this.current = Math.max(this.current, tickOf(job.time));
+        }
+        return job;
+    }
+
+    @Override
+    public Job peek() {
+        advance();
+        return this.main.peek();
+    }
+
+    @Override
+    public int size() {
+        return this.main.size() + this.size;
+    }
+
+    @Override
+    public int removeIf(Predicate<Job> filter) {
+        int removed = 0;
+        for (int level = 0; level < this.wheel.length; level++) {
+            for (int slot = 0; slot <= this.mask; slot++) {
+                Job[] items = this.wheel[level][slot];
+                int count = this.counts[level][slot];
+                int n = 0;
+                for (int i = 0; i < count; i++) {
+                    if (!filter.test(items[i])) {
+                        items[n++] = items[i];
+                    }
+                }
+                for (int i = n; i < count; i++) {
+                    items[i] = null;
+                }
+                this.counts[level][slot] = n;
+                this.levelSizes[level] -= count - n;
+                removed += count - n;
+            }
+        }
+        this.size -= removed;
+        return removed + this.main.removeIf(filter);
+    }
+
+    /**
+     * Returns the iterator of the jobs in the main queue, then the jobs in the wheel.
+     *
+     */
+    @Override
+    public Iterator<Job> iterator() {
+        return new Iterator<Job>() {
+
+            private final Iterator<Job> first = TimerWheelQueue.this.main.iterator();
+
+            private int level = 0;
+
+            private int slot = 0;
+
+            private int i = 0;
+
+            @Override
+            public boolean hasNext() {
+                if (this.first.hasNext()) {
+                    return true;
+                }
+                int[][] counts = TimerWheelQueue.this.counts;
+                while (this.level < counts.length) {
+                    if (this.i < counts[this.level][this.slot]) {
+                        return true;
+                    }
+                    this.i = 0;
+                    if (++this.slot == counts[this.level].length) {
+                        this.slot = 0;
+                        this.level++;
+                    }
+                }
+                return false;
+            }
+
+            @Override
+            public Job next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return this.first.hasNext()
+                        ? this.first.next()
+                        : TimerWheelQueue.this.wheel[this.level][this.slot][this.i++];
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (Job job : this) {
+            if (sb.length() > 1) {
+                sb.append(", ");
+            }
+            sb.append(job);
+        }
+        return sb.append("]").toString();
+    }
+
+    private long tickOf(long time) {
+        return Math.floorDiv(time, this.tick);
+    }
+
+    /**
+     * Puts the job into the wheel.
+     *
+     * @param job The job.
+     * @return False if the job is not later than the current tick or out of the range.
+     */
+    private boolean put(Job job) {
+        long t = tickOf(job.time);
+        if (t <= this.current) {
+            return false;
+        }
+        // the lowest level which the job and the current tick share the same block of the level above.
+        for (int level = 0; level < this.wheel.length; level++) {
+            int shift = this.bits * (level + 1);
+            if ((t >> shift) == (this.current >> shift)) {
+                int slot = (int) (t >> (this.bits * level)) & this.mask;
+                Job[] items = this.wheel[level][slot];
+                int n = this.counts[level][slot];
+                if (items == null) {
+                    items = new Job[4];
+                    this.wheel[level][slot] = items;
+                }
+                else if (n == items.length) {
+                    Job[] grown = new Job[n << 1];
+                    System.arraycopy(items, 0, grown, 0, n);
+                    items = grown;
+                    this.wheel[level][slot] = items;
+                }
+                items[n] = job;
+                this.counts[level][slot] = n + 1;
+                this.levelSizes[level]++;
+                this.size++;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Moves the wheel until the main queue has the first job.
+     *
+     */
+    private void advance() {
+        while (this.size > 0) {
+            Job first = this.main.peek();
+            long limit = first == null ? Long.MAX_VALUE : tickOf(first.time);
+            if (limit <= this.current) {
+                return;
+            }
+
+            // skips the ticks of the empty levels, never passes the first job in the main queue.
+            int lowest = 0;
+            while (this.levelSizes[lowest] == 0) {
+                lowest++;
+            }
+            if (lowest > 0) {
+                int shift = this.bits * lowest;
+                long boundary = ((this.current >> shift) + 1) << shift;
+                this.current = Math.max(this.current, Math.min(boundary, limit) - 1);
+            }
+
+            long next = ++this.current;
+            int top = 0;
+            while (top + 1 < this.wheel.length && (next & ((1L << (this.bits * (top + 1))) - 1)) == 0) {
+                top++;
+            }
+            // cascades from the highest level which starts a new block.
+            for (int level = top; level >= 0; level--) {
+                cascade(level, (int) (next >> (this.bits * level)) & this.mask);
+            }
+        }
+    }
+
+    private void cascade(int level, int slot) {
+        int n = this.counts[level][slot];
+        if (n == 0) {
+            return;
+        }
+        Job[] items = this.wheel[level][slot];
+        this.counts[level][slot] = 0;
+        this.levelSizes[level] -= n;
+        this.size -= n;
+        for (int i = 0; i < n; i++) {
+            Job job = items[i];
+            items[i] = null;
+            if (!put(job)) {
+                this.main.add(job);
+            }
+        }
+    }
+}
@@ -0,0 +1,5 @@
+/**
+ * The implementation of event queues.
+ * 
+ */
+package uia.sim.queues;
\ No newline at end of file
@@ -127,11 +127,13 @@ public abstract class BaseResource<T extends BaseResource<T>> {
             BaseRequest<T> request = this.requestQueue.get(idx);
             // request 申請  resource 占用
             boolean proceed = doRequest(request);
-            logger.debug(String.format("res> scanRequest(%s)> %s, triggered:%s, proceed:%s",
-                    by,
-                    request,
-                    request.isTriggered(),
-                    proceed));
+            if (logger.isDebugEnabled()) {
+                logger.debug(String.format("res> scanRequest(%s)> %s, triggered:%s, proceed:%s",
+                        by,
+                        request,
+                        request.isTriggered(),
+                        proceed));
+            }
             if (!request.isTriggered()) {
                 idx++;
             }
@@ -163,11 +165,13 @@ public abstract class BaseResource<T extends BaseResource<T>> {
             // 進行 release 作業
             // release 歸還  resource 占用
             boolean proceed = doRelease(release);
-            logger.debug(String.format("res> scanRelease(%s)> %s, triggered:%s, proceed:%s",
-                    by,
-                    release,
-                    release.isTriggered(),
-                    proceed));
+            if (logger.isDebugEnabled()) {
+                logger.debug(String.format("res> scanRelease(%s)> %s, triggered:%s, proceed:%s",
+                        by,
+                        release,
+                        release.isTriggered(),
+                        proceed));
+            }
             if (!release.isTriggered()) {
                 idx++;
             }
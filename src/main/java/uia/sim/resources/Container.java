@@ -47,7 +47,26 @@ public final class Container extends BaseResource<Container> {
     }
 
     @Override
-    protected synchronized boolean doRequest(BaseRequest<Container> request) {
+    protected boolean doRequest(BaseRequest<Container> request) {
+        if (this.env.isSingleThreaded()) {
+            return take(request);
+        }
+        synchronized (this) {
+            return take(request);
+        }
+    }
+
+    @Override
+    protected boolean doRelease(BaseRelease<Container> release) {
+        if (this.env.isSingleThreaded()) {
+            return put(release);
+        }
+        synchronized (this) {
+            return put(release);
+        }
+    }
+
+    private boolean take(BaseRequest<Container> request) {
         int planUsage = ((Request) request).planUsage;
         if (this.amount - planUsage >= 0) {
             this.amount -= planUsage;
@@ -59,8 +78,7 @@ public final class Container extends BaseResource<Container> {
         }
     }
 
-    @Override
-    protected synchronized boolean doRelease(BaseRelease<Container> release) {
+    private boolean put(BaseRelease<Container> release) {
         this.amount += ((Release) release).amount;
         release.succeed(null);      // resume the resource to refresh requests.
         return true;
@@ -0,0 +1,74 @@
+package uia.cor;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the cost of one value pulled from a data generator with different buffer sizes.<br>
+ * The buffer size 1 is the unbuffered yield, one context switch for each value.
+ *
+ * <pre>
+ * mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test -Dexec.args="-cp %classpath uia.cor.BufferedYieldBenchmark"
+ * </pre>
+ *
+ * @author Kan
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BufferedYieldBenchmark {
+
+    @Param({ "1", "16", "256" })
+    public int bufferSize;
+
+    private Generator<Integer> gen;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.gen = Yield.accept("bench", this.bufferSize, y -> {
+            int i = 0;
+            while (true) {
+                y.call(i++);
+            }
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.gen.stop(new Exception("tearDown"));
+    }
+
+    @Benchmark
+    public Integer value() {
+        this.gen.next();
+        return this.gen.getValue();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(BufferedYieldBenchmark.class.getSimpleName())
+                .build())
+                        .run();
+    }
+}
@@ -0,0 +1,232 @@
+package uia.cor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import uia.sim.Env;
+
+public class CarrierTest {
+
+    @Test
+    public void testPlatform() {
+        Generator<Integer> gen = Yield.accept("p1", Carriers.platform(), this::callFor);
+        Assert.assertEquals(10, count(gen));
+    }
+
+    @Test
+    public void testFactory() {
+        AtomicInteger created = new AtomicInteger();
+        Carrier carrier = Carriers.of(r -> {
+            created.incrementAndGet();
+            return new Thread(r);
+        });
+        Generator<Integer> gen = Yield.accept("f1", carrier, this::callFor);
+        Assert.assertEquals(10, count(gen));
+        Assert.assertEquals(1, created.get());
+    }
+
+    @Test
+    public void testVirtual() {
+        Carrier carrier = Carriers.virtual();
+        if (!Carriers.isVirtualSupported()) {
+            Assert.assertSame(Carriers.platform(), carrier);
+        }
+        Generator2Way<Integer, Integer> gen = Yield2Way.accept("v1", carrier, this::callSum2);
+        gen.next();
+        int i = 0;
+        do {
+            i = gen.getValue();
+        }
+        while (gen.next(i * i));
+        Assert.assertEquals(385, (int) gen.getFinalResult());
+    }
+
+    @Test
+    public void testLateStart() throws Exception {
+        // the thread starts after the generator asks for the first value.
+        Carrier carrier = (name, task) -> {
+            Thread th = new Thread(() -> {
+                try {
+                    Thread.sleep(100);
+                }
+                catch (InterruptedException ex) {
+                }
+                task.run();
+            });
+            th.start();
+        };
+        long t = System.currentTimeMillis();
+        Generator<Integer> gen = Yield.accept("l1", carrier, this::callFor);
+        Assert.assertTrue(System.currentTimeMillis() - t < 100);
+        Assert.assertEquals(10, count(gen));
+    }
+
+    @Test
+    public void testLazyStart() throws Exception {
+        // the thread is started by the first next().
+        AtomicInteger created = new AtomicInteger();
+        Carrier carrier = Carriers.of(r -> {
+            created.incrementAndGet();
+            return new Thread(r);
+        });
+        Generator<Integer> gen = Yield.accept("e1", carrier, this::callFor);
+        Thread.sleep(100);
+        Assert.assertEquals(0, created.get());
+        Assert.assertEquals(10, count(gen));
+        Assert.assertEquals(1, created.get());
+
+        // stopped before started, no thread is required.
+        Generator2Way<Integer, Integer> gen2 = Yield2Way.accept("e2", carrier, this::callSum2);
+        gen2.stop(new Exception("never"));
+        Assert.assertTrue(gen2.isClosed());
+        Assert.assertFalse(gen2.next());
+        Assert.assertEquals(1, created.get());
+    }
+
+    @Test
+    public void testEnv() {
+        AtomicInteger created = new AtomicInteger();
+        Env env = new Env();
+        env.setCarrier(Carriers.of(r -> {
+            created.incrementAndGet();
+            return new Thread(r);
+        }));
+        for (int p = 0; p < 3; p++) {
+            env.process("p" + p, y -> {
+                for (int i = 0; i < 5; i++) {
+                    y.call(env.timeout(1));
+                }
+            });
+        }
+        Assert.assertEquals(5, env.run());
+        Assert.assertEquals(3, created.get());
+
+        env.setCarrier(null);
+        Assert.assertSame(Carriers.getDefault(), env.getCarrier());
+    }
+
+    @Test
+    public void testDefault() {
+        AtomicInteger created = new AtomicInteger();
+        Carriers.setDefault(Carriers.of(r -> {
+            created.incrementAndGet();
+            return new Thread(r);
+        }));
+        try {
+            Generator<Integer> gen = Yield.accept(this::callFor);
+            Assert.assertEquals(10, count(gen));
+            Assert.assertEquals(1, created.get());
+        }
+        finally {
+            Carriers.setDefault(null);
+        }
+        Assert.assertSame(Carriers.platform(), Carriers.getDefault());
+    }
+
+    @Test
+    public void testParseSize() {
+        // -Xss
+        Assert.assertEquals(262144, Carriers.parseSize("262144", 1));
+        Assert.assertEquals(512 * 1024, Carriers.parseSize("512k", 1));
+        Assert.assertEquals(1024 * 1024, Carriers.parseSize("1m", 1));
+        // -XX:ThreadStackSize, in KB without the suffix.
+        Assert.assertEquals(1024 * 1024, Carriers.parseSize("1024", 1024));
+        Assert.assertEquals(512 * 1024, Carriers.parseSize("512k", 1024));
+        Assert.assertEquals(1024 * 1024, Carriers.parseSize("1m", 1024));
+        Assert.assertEquals(1024L * 1024 * 1024, Carriers.parseSize("1G", 1024));
+    }
+
+    @Test
+    public void testStackSize() {
+        List<Long> sizes = new ArrayList<>();
+        Carrier carrier = new Carrier() {
+
+            @Override
+            public void start(String name, Runnable task) {
+                start(name, 0, task);
+            }
+
+            @Override
+            public void start(String name, long stackSize, Runnable task) {
+                sizes.add(stackSize);
+                Carriers.platform().start(name, stackSize, task);
+            }
+        };
+        Env env = new Env();
+        env.setCarrier(carrier);
+        env.process("p1", y -> y.call(env.timeout(1)));
+        env.setStackSize(512 * 1024);
+        env.process("p2", y -> y.call(env.timeout(1)));
+        env.process("p3", 0, 256 * 1024L, y -> y.call(env.timeout(1)));
+        env.run();
+        Assert.assertEquals("[0, 524288, 262144]", sizes.toString());
+
+        // the hint of the caller wins.
+        Carrier sized = Carriers.withStackSize(carrier, 128 * 1024);
+        Assert.assertEquals(10, count(Yield.accept("s1", sized, this::callFor)));
+        sized.start("s2", 64 * 1024, () -> {
+        });
+        Assert.assertEquals("[0, 524288, 262144, 131072, 65536]", sizes.toString());
+        Assert.assertSame(carrier, Carriers.withStackSize(carrier, 0));
+    }
+
+    @Test
+    public void testAccounting() throws Exception {
+        long size = 256 * 1024;
+        Carrier carrier = Carriers.withStackSize(Carriers.platform(), size);
+        waitIdle();
+        int live = Carriers.getLiveCount();
+        long reserved = Carriers.getReservedStackBytes();
+
+        List<Generator<Integer>> gens = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Generator<Integer> gen = Yield.accept("a" + i, carrier, this::callFor);
+            gen.next();
+            gens.add(gen);
+        }
+        Assert.assertEquals(live + 5, Carriers.getLiveCount());
+        Assert.assertTrue(Carriers.getPeakLiveCount() >= live + 5);
+        Assert.assertEquals(reserved + 5 * size, Carriers.getReservedStackBytes());
+
+        gens.forEach(Generator::stop);
+        waitIdle();
+        Assert.assertEquals(live, Carriers.getLiveCount());
+        Assert.assertEquals(reserved, Carriers.getReservedStackBytes());
+        Assert.assertTrue(Carriers.getDefaultStackSize() > 0);
+    }
+
+    private void waitIdle() throws InterruptedException {
+        // threads of the other tests may be exiting.
+        for (int i = 0; i < 50 && Carriers.getReservedStackBytes() > 0; i++) {
+            Thread.sleep(10);
+        }
+    }
+
+    private int count(Generator<Integer> gen) {
+        int i = 0;
+        while (gen.next()) {
+            Assert.assertEquals(i, gen.getValue().intValue());
+            i++;
+        }
+        Assert.assertTrue(gen.isClosed());
+        return i;
+    }
+
+    public void callFor(Yield<Integer> yield) {
+        for (int i = 0; i < 10; i++) {
+            yield.call(i);
+        }
+    }
+
+    public void callSum2(Yield2Way<Integer, Integer> yield) {
+        int sum = 0;
+        for (int i = 1; i <= 10; i++) {
+            sum += yield.call(i);
+        }
+        yield.close(sum);
+    }
+}
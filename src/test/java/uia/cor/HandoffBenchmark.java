@@ -0,0 +1,151 @@
+package uia.cor;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the latency of one context switch between a generator and its yield.<br>
+ *
+ * <ul>
+ * <li>handoff - Yield2Way, park/unpark ping-pong.</li>
+ * <li>monitor - a replica of the previous synchronized/notifyAll/wait protocol.</li>
+ * </ul>
+ *
+ * <pre>
+ * mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test -Dexec.args="-cp %classpath uia.cor.HandoffBenchmark"
+ * </pre>
+ *
+ * @author Kan
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HandoffBenchmark {
+
+    private Generator2Way<Integer, Integer> gen;
+
+    private MonitorPair pair;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.gen = Yield2Way.accept("bench", y -> {
+            int i = 0;
+            while (true) {
+                i = y.call(i + 1);
+            }
+        });
+        this.gen.next();
+        this.pair = new MonitorPair();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.gen.stop(new Exception("tearDown"));
+        this.pair.stop();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(2)
+    public int handoff() {
+        this.gen.next(1);
+        return this.gen.getValue();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(2)
+    public int monitor() {
+        return this.pair.next();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(HandoffBenchmark.class.getSimpleName())
+                .build())
+                        .run();
+    }
+
+    /**
+     * The previous protocol: both sides notifyAll then wait on the same monitor.
+     */
+    static class MonitorPair {
+
+        private int value;
+
+        private volatile boolean closed;
+
+        MonitorPair() {
+            synchronized (this) {
+                Thread th = new Thread(this::running);
+                th.setDaemon(true);
+                th.start();
+                try {
+                    wait(1000);
+                }
+                catch (InterruptedException ex) {
+                }
+            }
+        }
+
+        int next() {
+            synchronized (this) {
+                notifyAll();
+                try {
+                    wait();
+                }
+                catch (InterruptedException ex) {
+                }
+                return this.value;
+            }
+        }
+
+        void stop() {
+            this.closed = true;
+            synchronized (this) {
+                notifyAll();
+            }
+        }
+
+        private void running() {
+            synchronized (this) {
+                notifyAll();
+                try {
+                    wait();
+                }
+                catch (InterruptedException ex) {
+                }
+            }
+            while (!this.closed) {
+                synchronized (this) {
+                    this.value++;
+                    notifyAll();
+                    try {
+                        wait();
+                    }
+                    catch (InterruptedException ex) {
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package uia.cor;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import uia.sim.Env;
+
+public class PooledCarrierTest {
+
+    @Test
+    public void testReuse() throws Exception {
+        PooledCarrier carrier = new PooledCarrier("reuse", 2, 256 * 1024, true);
+        Set<Thread> threads = new HashSet<>();
+        for (int i = 0; i < 5; i++) {
+            Generator<Integer> gen = Yield.accept("r" + i, carrier, y -> {
+                threads.add(Thread.currentThread());
+                Assert.assertTrue(Thread.currentThread().isDaemon());
+                Assert.assertTrue(Thread.currentThread().getName().startsWith("reuse-"));
+                for (int v = 0; v < 3; v++) {
+                    y.call(v);
+                }
+            });
+            Assert.assertEquals(3, count(gen));
+            idle(carrier);
+        }
+        Assert.assertEquals(1, threads.size());
+        Assert.assertEquals(1, carrier.getMisses());
+        Assert.assertEquals(4, carrier.getHits());
+        Assert.assertEquals(1, carrier.getPeak());
+        Assert.assertEquals(1, carrier.getIdle());
+        carrier.shutdown();
+    }
+
+    @Test
+    public void testOverflow() throws Exception {
+        PooledCarrier carrier = new PooledCarrier(2);
+        Generator<Integer> gen1 = Yield.accept("o1", carrier, this::callFor);
+        Generator<Integer> gen2 = Yield.accept("o2", carrier, this::callFor);
+        Generator<Integer> gen3 = Yield.accept("o3", carrier, this::callFor);
+        Assert.assertTrue(gen1.next());
+        Assert.assertTrue(gen2.next());
+        Assert.assertTrue(gen3.next());
+        Assert.assertEquals(3, carrier.getRunning());
+        Assert.assertEquals(3, carrier.getPeak());
+        Assert.assertEquals(6, count(gen1) + count(gen2) + count(gen3));
+        idle(carrier);
+
+        // the overflow thread is not kept.
+        Assert.assertEquals(2, carrier.getIdle());
+        Assert.assertEquals(2, carrier.getPooled());
+        Assert.assertEquals(3, carrier.getMisses());
+        Assert.assertEquals(0, carrier.getHits());
+
+        carrier.shutdown();
+        Assert.assertEquals(0, carrier.getIdle());
+        Assert.assertEquals(0, carrier.getPooled());
+        try {
+            Yield.accept("o4", carrier, this::callFor).next();
+            Assert.fail("shutdown");
+        }
+        catch (YieldException ex) {
+        }
+    }
+
+    @Test
+    public void testShutdownBusy() throws Exception {
+        PooledCarrier carrier = new PooledCarrier(2);
+        Generator<Integer> gen1 = Yield.accept("b1", carrier, this::callFor);
+        Assert.assertEquals(3, count(gen1));
+        idle(carrier);
+        Generator<Integer> gen2 = Yield.accept("b2", carrier, this::callFor);
+        Generator<Integer> gen3 = Yield.accept("b3", carrier, this::callFor);
+        Assert.assertTrue(gen2.next());
+        Assert.assertTrue(gen3.next());
+        Assert.assertEquals(2, carrier.getPooled());
+
+        // the busy threads leave the pool after their programs are done.
+        carrier.shutdown();
+        Assert.assertEquals(2, carrier.getPooled());
+        Assert.assertEquals(4, count(gen2) + count(gen3));
+        idle(carrier);
+        Assert.assertEquals(0, carrier.getPooled());
+    }
+
+    @Test
+    public void testEnv() throws Exception {
+        PooledCarrier carrier = new PooledCarrier(4);
+        Env env = new Env();
+        env.setCarrier(carrier);
+        // 100 processes arrive one by one and live for 3.
+        env.process("source", y -> {
+            for (int i = 0; i < 100; i++) {
+                env.process("p" + i, p -> {
+                    p.call(env.timeout(3));
+                });
+                y.call(env.timeout(1));
+            }
+        });
+        Assert.assertEquals(102, env.run());
+        idle(carrier);
+        // the source and 3 living processes, the threads return to the pool before the next arrival.
+        Assert.assertEquals(4, carrier.getPeak());
+        Assert.assertEquals(4, carrier.getMisses());
+        Assert.assertEquals(97, carrier.getHits());
+        carrier.shutdown();
+    }
+
+    private void idle(PooledCarrier carrier) throws InterruptedException {
+        // the thread returns to the pool after the generator is closed.
+        for (int i = 0; i < 100 && carrier.getRunning() > 0; i++) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(0, carrier.getRunning());
+    }
+
+    private int count(Generator<Integer> gen) {
+        int i = 0;
+        while (gen.next()) {
+            i++;
+        }
+        return i;
+    }
+
+    public void callFor(Yield<Integer> yield) {
+        for (int i = 0; i < 3; i++) {
+            yield.call(i);
+        }
+    }
+}
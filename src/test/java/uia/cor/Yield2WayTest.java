@@ -20,6 +20,25 @@ public class Yield2WayTest {
         Assert.assertTrue(gen.isClosed());
     }
 
+    @Test
+    public void testStream() {
+        Generator2Way<Integer, Integer> gen = Yield2Way.accept("y2", y -> {
+            for (int i = 1; i <= 10; i++) {
+                y.call(i);
+            }
+        });
+        int i = 0;
+        for (Integer v : gen) {
+            i++;
+            Assert.assertEquals(i, v.intValue());
+            if (i == 3) {
+                break;
+            }
+        }
+        Assert.assertEquals(49, gen.stream().mapToInt(Integer::intValue).sum());
+        Assert.assertTrue(gen.isClosed());
+    }
+
     @Test
     public void test1stop1() {
         Generator2Way<Integer, Integer> gen = Yield2Way.accept("y2", this::callSum2);
@@ -1,5 +1,10 @@
 package uia.cor;
 
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -130,6 +135,130 @@ public class YieldTest {
         Assert.assertTrue(gen.isClosed());
     }
 
+    @Test
+    public void testBuffered() {
+        StringBuilder log = new StringBuilder();
+        Generator<Integer> gen = Yield.accept("y1", 4, y -> {
+            Assert.assertEquals(4, y.getBufferSize());
+            for (int i = 0; i < 10; i++) {
+                log.append("p");
+                y.call(i);
+            }
+        });
+        int i = 0;
+        while (gen.next()) {
+            log.append("c");
+            Assert.assertEquals(i, gen.getValue().intValue());
+            i++;
+        }
+        Assert.assertEquals(10, i);
+        Assert.assertTrue(gen.isClosed());
+        // the control is passed once for each 4 values.
+        Assert.assertEquals("ppppccccppppccccppcc", log.toString());
+    }
+
+    @Test
+    public void testBufferedCallWhile() {
+        Generator<Integer> gen = Yield.accept("y1", 3, this::callWhile);
+        int i = 0;
+        while (gen.next()) {
+            Assert.assertEquals(i, gen.getValue().intValue());
+            i++;
+        }
+        Assert.assertEquals(10, i);
+        Assert.assertEquals(10, gen.getValue().intValue());
+        Assert.assertTrue(gen.isClosed());
+    }
+
+    @Test
+    public void testBufferedStop() {
+        Generator<Integer> gen = Yield.accept("y1", 4, this::callFor);
+        int i = 0;
+        while (gen.next()) {
+            Assert.assertEquals(i, gen.getValue().intValue());
+            i++;
+            if (i == 5) {
+                // 6 and 7 in the ring are dropped.
+                gen.stop(new Exception("force stop"));
+            }
+        }
+        Assert.assertEquals(5, i);
+        Assert.assertTrue(gen.isClosed());
+    }
+
+    @Test
+    public void testBufferedError() {
+        Generator<Integer> gen = Yield.accept("y1", 4, this::callForWithError2);
+        int i = 0;
+        while (gen.next()) {
+            Assert.assertEquals(i, gen.getValue().intValue());
+            i++;
+            if (i == 5) {
+                // reported to the iteration when the ring is drained.
+                gen.error(new Exception("i=5"));
+            }
+        }
+        Assert.assertEquals(10, i);
+        Assert.assertTrue(gen.isClosed());
+    }
+
+    @Test
+    public void testIterator() {
+        int i = 0;
+        for (Integer v : Yield.accept("y1", this::callFor)) {
+            Assert.assertEquals(i, v.intValue());
+            i++;
+        }
+        Assert.assertEquals(10, i);
+
+        Iterator<Integer> it = Yield.accept(this::callWhile).iterator();
+        Assert.assertTrue(it.hasNext());
+        Assert.assertTrue(it.hasNext());
+        Assert.assertEquals(0, it.next().intValue());
+        i = 1;
+        while (it.hasNext()) {
+            Assert.assertEquals(i, it.next().intValue());
+            i++;
+        }
+        // the last value of callLast() is not iterated, same as next().
+        Assert.assertEquals(10, i);
+        try {
+            it.next();
+            Assert.fail("no such element");
+        }
+        catch (NoSuchElementException ex) {
+        }
+    }
+
+    @Test
+    public void testStream() {
+        Assert.assertEquals(45, Yield.accept("y1", this::callFor).stream().mapToInt(Integer::intValue).sum());
+        Assert.assertEquals(45, Yield.accept("y1", 4, this::callFor).intStream(Integer::intValue).sum());
+        Assert.assertEquals(4.5, Yield.accept("y1", this::callFor).doubleStream(Integer::doubleValue).average().getAsDouble(), 0.0001);
+        Assert.assertEquals("[0, 2, 4]", Yield.accept("y1", this::callFor).stream()
+                .filter(v -> v % 2 == 0)
+                .limit(3)
+                .collect(Collectors.toList())
+                .toString());
+    }
+
+    @Test
+    public void testStreamShortCircuit() {
+        Generator<Integer> gen = Yield.accept("y2", this::callFor2);
+        try (Stream<Integer> s = gen.stream()) {
+            Assert.assertEquals(3, s.filter(v -> v > 2).findFirst().get().intValue());
+            Assert.assertFalse(gen.isClosed());
+        }
+        // closing the stream stops the iteration.
+        Assert.assertTrue(gen.isClosed());
+    }
+
+    public void callFor2(Yield<Integer> yield) {
+        for (int i = 0; i < 10; i++) {
+            yield.call(i);
+        }
+    }
+
     public void callFor(Yield<Integer> yield) {
         Assert.assertEquals("y1", yield.toString());
         for (int i = 0; i < 10; i++) {
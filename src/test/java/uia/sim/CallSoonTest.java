@@ -0,0 +1,115 @@
+package uia.sim;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import uia.sim.Event.PriorityType;
+
+public class CallSoonTest {
+
+    @Test
+    public void testOrder() {
+        final Env env = new Env();
+        final List<String> logs = new ArrayList<>();
+        env.schedule("e1", 0, PriorityType.NORMAL, () -> logs.add(env.getNow() + "e1"));
+        env.callSoon(() -> logs.add(env.getNow() + "t1"));
+        env.schedule("e2", 0, PriorityType.NORMAL, () -> logs.add(env.getNow() + "e2"));
+        env.callAt(0, PriorityType.URGENT, () -> logs.add(env.getNow() + "t2"));
+        env.callAt(0, PriorityType.LOW, () -> logs.add(env.getNow() + "t3"));
+        env.schedule("e3", 5, PriorityType.NORMAL, () -> {
+            logs.add(env.getNow() + "e3");
+            // after the current callback.
+            env.callSoon(() -> logs.add(env.getNow() + "t4"));
+            logs.add(env.getNow() + "e3+");
+        });
+        env.callAt(5, PriorityType.NORMAL, () -> logs.add(env.getNow() + "t5"));
+        env.callAt(3, PriorityType.NORMAL, () -> logs.add(env.getNow() + "t6"));
+        Assert.assertEquals(5, env.run());
+        Assert.assertEquals("[0t2, 0e1, 0t1, 0e2, 0t3, 3t6, 5e3, 5e3+, 5t5, 5t4]", logs.toString());
+    }
+
+    @Test
+    public void testProcess() {
+        final Env env = new Env();
+        final List<String> logs = new ArrayList<>();
+        env.process("p", y -> {
+            y.call(env.timeout(2));
+            env.callSoon(() -> logs.add(env.getNow() + ":soon"));
+            logs.add(env.getNow() + ":p");
+            y.call(env.timeout(1));
+            logs.add(env.getNow() + ":p");
+        });
+        env.run();
+        Assert.assertEquals("[2:p, 2:soon, 3:p]", logs.toString());
+    }
+
+    @Test
+    public void testUntil() {
+        final Env env = new Env();
+        final List<Integer> logs = new ArrayList<>();
+        env.callAt(10, PriorityType.URGENT, () -> logs.add(env.getNow()));
+        env.callAt(20, PriorityType.URGENT, () -> logs.add(env.getNow()));
+        Assert.assertEquals(15, env.run(15));
+        Assert.assertEquals("[10]", logs.toString());
+
+        try {
+            env.callAt(3, PriorityType.NORMAL, () -> logs.add(env.getNow()));
+            Assert.fail("time");
+        }
+        catch (IllegalArgumentException ex) {
+        }
+    }
+
+    @Test
+    public void testParallel() {
+        final Env env = new Env();
+        env.setParallel(true);
+        final List<Integer> logs = new ArrayList<>();
+        env.callAt(4, PriorityType.NORMAL, () -> logs.add(env.getNow()));
+        env.callSoon(() -> logs.add(env.getNow()));
+        Assert.assertEquals(2, env.size());
+        Assert.assertEquals(4, env.run());
+        Assert.assertEquals("[0, 4]", logs.toString());
+    }
+
+    @Test
+    public void testNoAllocation() {
+        java.lang.management.ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(mx instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean tmx = (com.sun.management.ThreadMXBean) mx;
+        Assume.assumeTrue(tmx.isThreadAllocatedMemorySupported() && tmx.isThreadAllocatedMemoryEnabled());
+
+        // warm up
+        chain(10000);
+
+        long tid = Thread.currentThread().getId();
+        long bytes = tmx.getThreadAllocatedBytes(tid);
+        chain(100000);
+        bytes = tmx.getThreadAllocatedBytes(tid) - bytes;
+        System.out.println("callSoon: 100000 tasks, " + bytes + " bytes");
+        // the task nodes are reused.
+        Assert.assertTrue(bytes + " bytes", bytes < 100000 * 8);
+    }
+
+    private void chain(int tasks) {
+        final Env env = new Env();
+        final int[] n = new int[1];
+        Runnable task = new Runnable() {
+
+            @Override
+            public void run() {
+                if (++n[0] < tasks) {
+                    env.callSoon(this);
+                }
+            }
+        };
+        env.callSoon(task);
+        env.run();
+        Assert.assertEquals(tasks, n[0]);
+    }
+}
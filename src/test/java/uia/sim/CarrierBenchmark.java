@@ -0,0 +1,133 @@
+package uia.sim;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import uia.cor.Carrier;
+import uia.cor.Carriers;
+import uia.cor.PooledCarrier;
+
+/**
+ * Compares the carriers of processes.<br>
+ *
+ * <ul>
+ * <li>resumes - the number of Process.resume per second. Measured by JMH.</li>
+ * <li>churn - the number of short-lived processes completed per second. Measured by JMH.</li>
+ * <li>live - the number of processes alive at the same time before the carrier fails. Printed by main().</li>
+ * </ul>
+ *
+ * <pre>
+ * mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test -Dexec.args="-Dlive.max=100000 -cp %classpath uia.sim.CarrierBenchmark"
+ * </pre>
+ *
+ * @author Kan
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CarrierBenchmark {
+
+    private static final int PROCESSES = 100;
+
+    private static final int STEPS = 100;
+
+    private static final PooledCarrier POOL = new PooledCarrier(16);
+
+    @Param({ "platform", "virtual", "factory", "pooled" })
+    public String carrier;
+
+    @Benchmark
+    @OperationsPerInvocation(PROCESSES * STEPS)
+    public int resumes() {
+        Env env = new Env();
+        env.setCarrier(carrier(this.carrier));
+        for (int p = 0; p < PROCESSES; p++) {
+            env.process("p" + p, y -> {
+                for (int i = 0; i < STEPS; i++) {
+                    y.call(env.timeout(1));
+                }
+            });
+        }
+        return env.run();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PROCESSES * STEPS)
+    public int churn() {
+        Env env = new Env();
+        env.setCarrier(carrier(this.carrier));
+        env.process("source", y -> {
+            for (int p = 0; p < PROCESSES * STEPS; p++) {
+                env.process("p" + p, c -> {
+                    c.call(env.timeout(2));
+                });
+                y.call(env.timeout(1));
+            }
+        });
+        return env.run();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Env.DEBUG = false;
+        int max = Integer.getInteger("live.max", 50000);
+        for (String name : new String[] { "platform", "virtual", "factory", "pooled" }) {
+            System.out.println(String.format("%-10s live=%s", name, live(carrier(name), max)));
+        }
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(CarrierBenchmark.class.getSimpleName())
+                .build())
+                        .run();
+    }
+
+    /**
+     * Parks processes on a shared timeout until the carrier fails or reaches the maximum.
+     */
+    private static int live(Carrier carrier, int max) {
+        Env env = new Env();
+        env.setCarrier(carrier);
+        Event tick = env.timeout(1);
+        AtomicInteger alive = new AtomicInteger();
+        for (int i = 0; i < max; i++) {
+            env.process("live" + i, y -> {
+                alive.incrementAndGet();
+                y.call(tick);
+            });
+        }
+        env.run();	// threads are started when processes start, a failure of the carrier stops the run.
+        return alive.get();
+    }
+
+    private static Carrier carrier(String name) {
+        switch (name) {
+            case "virtual":
+                return Carriers.virtual();
+            case "factory":
+                return Carriers.of(Executors.defaultThreadFactory());
+            case "pooled":
+                return POOL;
+            default:
+                return Carriers.platform();
+        }
+    }
+}
@@ -6,6 +6,7 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import uia.sim.events.AllOf;
+import uia.sim.events.AnyOf;
 import uia.sim.events.Condition;
 import uia.sim.events.ConditionValue;
 import uia.sim.events.Process;
@@ -25,6 +26,22 @@ public class ConditionTest {
         env.run();
     }
 
+    @Test
+    public void testCancelLosers() throws Exception {
+        final Env env1 = new Env();
+        env1.process("any", y -> {
+            y.call(new AnyOf(env1, "any", Arrays.asList(env1.timeout(3), env1.timeout(100))));
+        });
+        Assert.assertEquals(100, env1.run());
+
+        final Env env2 = new Env();
+        env2.process("any", y -> {
+            y.call(new AnyOf(env2, "any", Arrays.asList(env2.timeout(3), env2.timeout(100)), true));
+            Assert.assertEquals(1, env2.getCancelledJobs());
+        });
+        Assert.assertEquals(3, env2.run());
+    }
+
     @Test
     public void testAnd() throws Exception {
         final Env env = new Env();
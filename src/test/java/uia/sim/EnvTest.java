@@ -1,11 +1,20 @@
 package uia.sim;
 
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Test;
 
 import uia.cor.Yield2Way;
 import uia.cor.Yieldable2Way;
+import uia.sim.Env.Job;
+import uia.sim.Event.PriorityType;
 import uia.sim.events.Process;
+import uia.sim.events.Timeout;
 
 public class EnvTest {
 
@@ -59,6 +68,110 @@ public class EnvTest {
         env.run(20);
     }
 
+    @Test
+    public void testLongTime() {
+        // 3 years in milliseconds.
+        final long year = 365L * 24 * 3600 * 1000;
+        final Env env = new Env();
+        env.process("main", y -> {
+            for (int i = 0; i < 3; i++) {
+                y.call(env.timeout(year));
+            }
+            y.call(env.timeout(1));
+        });
+        Assert.assertEquals(2 * year, env.run(2 * year));
+        Assert.assertEquals(2 * year, env.getTime());
+        try {
+            env.getNow();
+            Assert.fail("out of int");
+        }
+        catch (ArithmeticException ex) {
+        }
+
+        Env env2 = new Env();
+        env2.process("main", y -> {
+            y.call(env2.timeout(3 * year));
+            y.call(env2.timeout(1));
+        });
+        Assert.assertEquals(Integer.MAX_VALUE, env2.run());
+        Assert.assertEquals(3 * year + 1, env2.getTime());
+
+        // a process started later than Integer.MAX_VALUE.
+        Env env3 = new Env();
+        final long[] started = new long[1];
+        env3.process("late", year, y -> {
+            started[0] = env3.getTime();
+            y.call(env3.timeout(1));
+        });
+        env3.run();
+        Assert.assertEquals(year, started[0]);
+        Assert.assertEquals(year + 1, env3.getTime());
+    }
+
+    @Test
+    public void testScheduleAll() {
+        Env env = new Env();
+        List<String> logs = new ArrayList<>();
+        List<Job> jobs = new ArrayList<>();
+        jobs.add(new Job(env.event("c"), PriorityType.LOW, 5));
+        jobs.add(new Job(env.event("b"), PriorityType.URGENT, 5));
+        jobs.add(new Job(env.event("a"), PriorityType.NORMAL, 3));
+        jobs.forEach(j -> j.event.addCallable(e -> logs.add(env.getNow() + e.getId())));
+        env.scheduleAll(jobs);
+        env.process("p", y -> {
+            y.call(env.timeout(4));
+            logs.add(env.getNow() + "p");
+        });
+        Assert.assertEquals(5, env.run());
+        Assert.assertEquals("[3a, 4p, 5b, 5c]", logs.toString());
+
+        Env env2 = new Env();
+        long[] delays = new long[100000];
+        for (int i = 0; i < delays.length; i++) {
+            delays[i] = (i * 7919L) % 10000;
+        }
+        long t1 = System.currentTimeMillis();
+        List<Timeout> timeouts = env2.timeouts("arrival", delays);
+        System.out.println("scheduleAll: 100000 timeouts, " + (System.currentTimeMillis() - t1) + "ms");
+        Assert.assertEquals(100000, env2.size());
+        timeouts.get(1).addCallable(e -> Assert.assertEquals(7919, env2.getNow()));
+        Assert.assertEquals(9999, env2.run());
+
+        try {
+            env2.scheduleAll(Arrays.asList(new Job(env2.event("late"), PriorityType.NORMAL, 0)));
+            Assert.fail("earlier than now");
+        }
+        catch (IllegalArgumentException ex) {
+        }
+    }
+
+    @Test
+    public void testNoAllocation() {
+        java.lang.management.ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(mx instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean tmx = (com.sun.management.ThreadMXBean) mx;
+        Assume.assumeTrue(tmx.isThreadAllocatedMemorySupported() && tmx.isThreadAllocatedMemoryEnabled());
+
+        long[] delays = new long[100000];
+        for (int i = 0; i < delays.length; i++) {
+            delays[i] = i;
+        }
+        // warm up
+        Env env1 = new Env();
+        env1.timeouts("warm", delays);
+        env1.run(delays.length / 2);
+
+        Env env2 = new Env();
+        env2.timeouts("arrival", delays);
+        long tid = Thread.currentThread().getId();
+        long bytes = tmx.getThreadAllocatedBytes(tid);
+        Assert.assertEquals(delays.length / 2, env2.run(delays.length / 2));
+        bytes = tmx.getThreadAllocatedBytes(tid) - bytes;
+        System.out.println("run: " + delays.length / 2 + " steps, " + bytes + " bytes");
+        // the steps of the main loop allocate nothing, only the fixed cost of run().
+        Assert.assertTrue(bytes + " bytes", bytes < 64 * 1024);
+    }
+
     @Test
     public void testListenerWithFailed() {
         final Env env = new Env();
@@ -0,0 +1,175 @@
+package uia.sim;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import uia.sim.events.Process;
+import uia.sim.events.Timeout;
+
+public class EventPoolTest {
+
+    @Test
+    public void testReuse() {
+        final Env env = new Env();
+        final EventPool pool = new EventPool();
+        env.setPool(pool);
+        final List<String> logs = new ArrayList<>();
+        env.process("p", y -> {
+            for (int i = 0; i < 1000; i++) {
+                Object value = y.call(env.timeout(1, i));
+                if (i % 500 == 0) {
+                    logs.add(env.getNow() + ":" + value);
+                }
+            }
+        });
+        // the processes started one by one.
+        for (int i = 0; i < 100; i++) {
+            env.process("q" + i, i * 2, y -> {
+                y.call(env.timeout("q", 1));
+            });
+        }
+        Assert.assertEquals(1000, env.run());
+        Assert.assertEquals("[1:0, 501:500]", logs.toString());
+        // 1100 timeouts and 101 Initialize events, the Initialize events are created before any is recycled.
+        Assert.assertEquals(1201, pool.getHits() + pool.getMisses());
+        Assert.assertTrue(pool.getHits() > 900);
+        Assert.assertTrue(pool.size() > 100);
+    }
+
+    @Test
+    public void testPinned() {
+        final Env env = new Env();
+        final EventPool pool = new EventPool();
+        env.setPool(pool);
+        final List<Event> kept = new ArrayList<>();
+        Process p = env.process("p", y -> {
+            Timeout t1 = env.timeout(3, "t1");
+            Timeout t2 = env.timeout(5, "t2");
+            y.call(t1.and(t2));
+            kept.add(t1);
+            kept.add(t2);
+
+            Timeout t3 = env.timeout(1, "t3");
+            t3.pin();
+            y.call(t3);
+            kept.add(t3);
+
+            y.call(env.timeout(1, "last"));
+        });
+        env.run();
+        for (Event e : kept) {
+            Assert.assertTrue(e.isPinned());
+            Assert.assertFalse(e.isRecycled());
+            Assert.assertTrue(e.isProcessed());
+        }
+        Assert.assertEquals("t1", kept.get(0).getValue());
+        Assert.assertEquals("t3", kept.get(2).getValue());
+        // the process keeps the last one.
+        Assert.assertEquals("last", p.getTarget().getValue());
+        Assert.assertFalse(p.getTarget().isRecycled());
+    }
+
+    @Test
+    public void testInterrupt() {
+        final Env env = new Env();
+        final EventPool pool = new EventPool();
+        env.setPool(pool);
+        final List<String> logs = new ArrayList<>();
+        final Process p = env.process("p", y -> {
+            for (int i = 0; i < 3; i++) {
+                try {
+                    y.call(env.timeout(10));
+                    logs.add(env.getNow() + ":ok");
+                }
+                catch (Exception ex) {
+                    logs.add(env.getNow() + ":" + ex.getMessage());
+                }
+            }
+        });
+        env.process("q", y -> {
+            y.call(env.timeout(1));
+            p.interrupt("int1");
+            y.call(env.timeout(1));
+            p.interrupt("int2");
+        });
+        env.run();
+        Assert.assertEquals("[1:int1, 2:int2, 12:ok]", logs.toString());
+    }
+
+    @Test
+    public void testDebug() {
+        final Env env = new Env();
+        final EventPool pool = new EventPool(16, true);
+        env.setPool(pool);
+        final List<Event> leaked = new ArrayList<>();
+        env.process("p", y -> {
+            Timeout t = env.timeout(1, "v");
+            y.call(t);
+            leaked.add(t);
+            y.call(env.timeout(1));
+            // t has been recycled.
+            try {
+                t.getValue();
+                Assert.fail("recycled");
+            }
+            catch (SimEventException ex) {
+                leaked.add(null);
+            }
+        });
+        env.run();
+        Assert.assertEquals(2, leaked.size());
+        Assert.assertTrue(leaked.get(0).isRecycled());
+        // nothing is reused in the debug mode.
+        Assert.assertEquals(0, pool.getHits());
+        Assert.assertEquals(0, pool.size());
+        Assert.assertTrue(pool.getRecycled() > 0);
+    }
+
+    @Test
+    public void testParallel() {
+        Env env = new Env();
+        env.setPool(new EventPool());
+        try {
+            env.setParallel(true);
+            Assert.fail("pooled");
+        }
+        catch (IllegalStateException ex) {
+        }
+    }
+
+    @Test
+    public void testAllocation() {
+        java.lang.management.ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(mx instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean tmx = (com.sun.management.ThreadMXBean) mx;
+        Assume.assumeTrue(tmx.isThreadAllocatedMemorySupported() && tmx.isThreadAllocatedMemoryEnabled());
+
+        // warm up
+        clock(null, 10000);
+        clock(new EventPool(), 10000);
+
+        long tid = Thread.currentThread().getId();
+        long bytes1 = tmx.getThreadAllocatedBytes(tid);
+        clock(null, 100000);
+        bytes1 = tmx.getThreadAllocatedBytes(tid) - bytes1;
+
+        long bytes2 = tmx.getThreadAllocatedBytes(tid);
+        clock(new EventPool(), 100000);
+        bytes2 = tmx.getThreadAllocatedBytes(tid) - bytes2;
+        System.out.println("pool: 100000 timeouts, " + bytes1 + " bytes without the pool, " + bytes2 + " bytes with the pool");
+        Assert.assertTrue(bytes2 < bytes1);
+    }
+
+    private void clock(EventPool pool, int ticks) {
+        final Env env = new Env();
+        env.setPool(pool);
+        final int[] n = new int[1];
+        env.stepProcess("clock", e -> n[0]++ < ticks ? env.timeout(1) : null);
+        Assert.assertEquals(ticks, env.run());
+    }
+}
@@ -1,5 +1,9 @@
 package uia.sim;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -67,4 +71,60 @@ public class EventTest {
         Assert.assertEquals(200, event.getValue());
 
     }
+
+    @Test
+    public void testCallables() {
+        final Env env = new Env();
+        final List<String> logs = new ArrayList<>();
+        Event event = env.event("e");
+        Assert.assertEquals(0, event.getNumberOfCallbables());
+
+        Consumer<Event> a = e -> logs.add("a");
+        Consumer<Event> b = e -> logs.add("b");
+        Consumer<Event> c = e -> logs.add("c");
+        Assert.assertTrue(event.addCallable(a));
+        Assert.assertFalse(event.addCallable(a));
+        Assert.assertTrue(event.addCallable(b));
+        Assert.assertFalse(event.addCallable(b));
+        Assert.assertTrue(event.removeCallable(a));
+        Assert.assertFalse(event.removeCallable(a));
+        Assert.assertTrue(event.addCallable(a));
+        for (int i = 0; i < 10; i++) {
+            final int n = i;
+            event.addCallable(e -> logs.add("" + n));
+        }
+        // added in the callback, invoked after the others.
+        event.addCallable(e -> e.addCallable(c));
+        Assert.assertEquals(13, event.getNumberOfCallbables());
+
+        event.succeed(null);
+        env.run();
+        Assert.assertTrue(event.isProcessed());
+        Assert.assertTrue(event.isOk());
+        Assert.assertEquals(0, event.getNumberOfCallbables());
+        Assert.assertEquals("[b, a, 0, 1, 2, 3, 4, 5, 6, 7, 8, 9, c]", logs.toString());
+    }
+
+    @Test
+    public void testFlags() {
+        final Env env = new Env();
+        Event event = env.event("e");
+        Assert.assertTrue(event.isOk());
+        Assert.assertFalse(event.isDefused());
+        event.fail(new Exception("ng"));
+        Assert.assertFalse(event.isOk());
+        event.defused();
+        Assert.assertTrue(event.isDefused());
+        Assert.assertFalse(event.isProcessed());
+        env.run();
+        Assert.assertTrue(event.isProcessed());
+        Assert.assertFalse(event.isCancelled());
+        Assert.assertFalse(event.cancel());
+
+        Event log = event.forLog();
+        Assert.assertFalse(log.isOk());
+        Assert.assertTrue(log.isDefused());
+        Assert.assertTrue(log.isProcessed());
+        Assert.assertFalse(log.isEnvDown());
+    }
 }
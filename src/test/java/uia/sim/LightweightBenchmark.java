@@ -0,0 +1,155 @@
+package uia.sim;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import uia.cor.Carriers;
+
+/**
+ * Compares the same Processable model with and without the Lightweight annotation, and the Steppable version.<br>
+ * The light model is skipped on the JVMs without virtual threads.
+ *
+ * <ul>
+ * <li>hello - the number of processes completed per second. Measured by JMH.</li>
+ * <li>memory - the threads and the heap used by the live processes. Printed by main().</li>
+ * </ul>
+ *
+ * <pre>
+ * mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test -Dexec.args="-Dlive=10000 -cp %classpath uia.sim.LightweightBenchmark"
+ * </pre>
+ *
+ * @author Kan
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LightweightBenchmark {
+
+    private static final int PROCESSES = 200;
+
+    @Param({ "heavy", "light", "step" })
+    public String model;
+
+    @Benchmark
+    @OperationsPerInvocation(PROCESSES)
+    public int hello() {
+        Env env = new Env();
+        for (int i = 0; i < PROCESSES; i++) {
+            create(env, this.model, i);
+        }
+        return env.run();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Env.DEBUG = false;
+        int live = Integer.getInteger("live", 5000);
+        String[] models = Carriers.isVirtualSupported()
+                ? new String[] { "heavy", "light", "step" }
+                : new String[] { "heavy", "step" };
+        for (String model : models) {
+            memory(model, live);
+        }
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(LightweightBenchmark.class.getSimpleName())
+                .param("model", models)
+                .build())
+                        .run();
+    }
+
+    private static void memory(String model, int live) {
+        System.gc();
+        Runtime rt = Runtime.getRuntime();
+        long heap = rt.totalMemory() - rt.freeMemory();
+        int threads = ManagementFactory.getThreadMXBean().getThreadCount();
+
+        Env env = new Env();
+        for (int i = 0; i < live; i++) {
+            create(env, model, i);
+        }
+        // all processes are waiting for the timeout(10) at 5.
+        env.schedule("measure", 5, Event.PriorityType.NORMAL, () -> {
+            System.gc();
+            System.out.println(String.format("%-6s live=%s, threads=+%s, heap=+%sKB",
+                    model,
+                    live,
+                    ManagementFactory.getThreadMXBean().getThreadCount() - threads,
+                    (rt.totalMemory() - rt.freeMemory() - heap) / 1024));
+        });
+        env.run();
+    }
+
+    private static void create(Env env, String model, int i) {
+        if ("step".equals(model)) {
+            env.process(new Step("step" + i));
+        }
+        else {
+            env.process("light".equals(model) ? new Light("light" + i) : new Heavy("heavy" + i));
+        }
+    }
+
+    public static class Heavy extends Processable {
+
+        public Heavy(String id) {
+            super(id);
+        }
+
+        @Override
+        protected void initial() {
+        }
+
+        @Override
+        protected void run() {
+            yield(env().timeout(10));
+        }
+    }
+
+    @Lightweight
+    public static class Light extends Heavy {
+
+        public Light(String id) {
+            super(id);
+        }
+    }
+
+    public static class Step extends Steppable {
+
+        private boolean waited;
+
+        public Step(String id) {
+            super(id);
+        }
+
+        @Override
+        protected void initial() {
+        }
+
+        @Override
+        protected Event step(Event by) {
+            if (this.waited) {
+                return null;
+            }
+            this.waited = true;
+            return env().timeout(10);
+        }
+    }
+}
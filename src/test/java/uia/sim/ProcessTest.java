@@ -1,8 +1,12 @@
 package uia.sim;
 
+import java.util.Vector;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.Assert;
 import org.junit.Test;
 
+import uia.cor.Carriers;
 import uia.sim.events.Process;
 import uia.sim.events.Timeout;
 
@@ -22,6 +26,31 @@ public class ProcessTest {
         env.run();
     }
 
+    @Test
+    public void testLazyStart() {
+        final AtomicInteger created = new AtomicInteger();
+        final Env env = new Env();
+        env.setCarrier(Carriers.of(r -> {
+            created.incrementAndGet();
+            return new Thread(r);
+        }));
+        final Vector<Integer> starts = new Vector<>();
+        for (int i = 1; i <= 10; i++) {
+            env.process("arrival" + i, 100 * i, y -> {
+                starts.add(env.getNow());
+                y.call(env.timeout(10));
+            });
+        }
+        env.process("monitor", y -> {
+            y.call(env.timeout(550));
+            Assert.assertEquals(6, created.get());	// monitor + 5 arrivals
+        });
+        env.run(700);
+        Assert.assertEquals(8, created.get());		// monitor + 7 arrivals
+        Assert.assertEquals(7, starts.size());
+        Assert.assertEquals(700, (int) starts.get(6));
+    }
+
     @Test
     public void testTarget() {
         final Env env = new Env();
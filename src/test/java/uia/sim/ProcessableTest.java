@@ -1,7 +1,12 @@
 package uia.sim;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
 import org.junit.Test;
 
+import uia.cor.Carriers;
+
 public class ProcessableTest {
 
 	@Test
@@ -18,6 +23,44 @@ public class ProcessableTest {
 		env.run();
 	}
 	
+	@Test
+	public void testSource() {
+		Env env = new Env();
+		Source source = new Source(500);
+		env.process(source);
+		env.run();
+		Assert.assertEquals(500, source.done);
+	}
+
+	@Test
+	public void testLightweight() {
+		AtomicInteger created = new AtomicInteger();
+		Env env = new Env();
+		env.setCarrier(Carriers.of(r -> {
+			created.incrementAndGet();
+			return new Thread(r);
+		}));
+		if (Carriers.isVirtualSupported()) {
+			env.process(new Light("light", 3));
+		}
+		else {
+			Light light = new Light("light", 3);
+			try {
+				env.process(light);
+				Assert.fail("virtual threads are not supported");
+			}
+			catch (SimException ex) {
+				Assert.assertTrue(ex.getMessage().contains("Steppable"));
+			}
+			// not binded, the process is not created.
+			Assert.assertNull(light.proc());
+		}
+		env.process(new Test1("heavy", 3));
+		Assert.assertEquals(300, env.run());
+		// only the heavy one runs on the carrier of the environment.
+		Assert.assertEquals(1, created.get());
+	}
+
 	public static class Test1 extends Processable {
 
 		private int repeat;
@@ -41,6 +84,14 @@ public class ProcessableTest {
 		}
 	}
 	
+	@Lightweight
+	public static class Light extends Test1 {
+
+		protected Light(String id, int repeat) {
+			super(id, repeat);
+		}
+	}
+
 	public static class Test2 extends Processable {
 
 		private int repeat;
@@ -64,4 +115,31 @@ public class ProcessableTest {
 			System.out.println("env is ready");
 		}
 	}
+
+	public static class Source extends Processable {
+
+		private final int count;
+
+		private int done;
+
+		protected Source(int count) {
+			super("source");
+			this.count = count;
+		}
+
+		@Override
+		protected void run() {
+			for(int i = 0; i < this.count; i++) {
+				env().process("lot" + i, y -> {
+					y.call(env().timeout(10));
+					this.done++;
+				});
+			}
+			yield(env().timeout(1));
+		}
+
+		@Override
+		public void initial() {
+		}
+	}
 }
@@ -0,0 +1,168 @@
+package uia.sim;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import uia.sim.events.Signal;
+
+public class SignalTest {
+
+    @Test
+    public void testBell() {
+        final Env env = new Env();
+        final Signal classBegin = env.signal("classBegin");
+        final Signal classEnd = env.signal("classEnd");
+        final List<String> logs = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            final String pupil = "p" + i;
+            env.process(pupil, y -> {
+                while (true) {
+                    y.call(classBegin);
+                    logs.add(env.getNow() + pupil + "+");
+                    y.call(classEnd);
+                    logs.add(env.getNow() + pupil + "-");
+                }
+            });
+        }
+        env.process("bell", y -> {
+            while (true) {
+                classBegin.succeed(null);
+                y.call(env.timeout(45));
+                classEnd.succeed(null);
+                y.call(env.timeout(15));
+            }
+        });
+        env.run(120);
+
+        Assert.assertEquals(2, classBegin.getCount());
+        Assert.assertEquals(2, classEnd.getCount());
+        Assert.assertFalse(classBegin.isTriggered());
+        Assert.assertFalse(classBegin.isProcessed());
+        Assert.assertEquals(
+                "[0p1+, 0p2+, 0p3+, 45p1-, 45p2-, 45p3-, 60p1+, 60p2+, 60p3+, 105p1-, 105p2-, 105p3-]",
+                logs.toString());
+    }
+
+    @Test
+    public void testEvery() {
+        final Env env = new Env();
+        final Signal tick = env.every(10);
+        Assert.assertEquals(10, tick.getPeriod());
+        final List<Integer> samples = new ArrayList<>();
+        env.process("sampler", y -> {
+            while (true) {
+                y.call(tick);
+                samples.add(env.getNow());
+            }
+        });
+        Assert.assertEquals(55, env.run(55));
+        Assert.assertEquals("[10, 20, 30, 40, 50]", samples.toString());
+        Assert.assertEquals(5, tick.getCount());
+
+        // the ticker stops after cancelled.
+        final Env env2 = new Env();
+        final Signal tick2 = env2.every("tick", 7);
+        env2.process("stopper", y -> {
+            for (int i = 0; i < 3; i++) {
+                y.call(tick2);
+            }
+            tick2.cancel();
+        });
+        Assert.assertEquals(21, env2.run());
+        Assert.assertEquals(3, tick2.getCount());
+
+        try {
+            env2.every(0);
+            Assert.fail("period");
+        }
+        catch (IllegalArgumentException ex) {
+        }
+    }
+
+    @Test
+    public void testCondition() {
+        final Env env = new Env();
+        final Signal tick = env.every(10);
+        final List<Integer> logs = new ArrayList<>();
+        env.process("p", y -> {
+            y.call(tick.or(env.timeout(15)));
+            logs.add(env.getNow());
+            y.call(tick.or(env.timeout(5)));
+            logs.add(env.getNow());
+            y.call(tick.or(env.timeout(8)));
+            logs.add(env.getNow());
+        });
+        env.run(35);
+        Assert.assertEquals("[10, 15, 20]", logs.toString());
+    }
+
+    @Test
+    public void testFail() {
+        final Env env = new Env();
+        final Signal alarm = env.signal("alarm");
+        final List<String> logs = new ArrayList<>();
+        env.process("p", y -> {
+            for (int i = 0; i < 2; i++) {
+                try {
+                    y.call(alarm);
+                    logs.add(env.getNow() + ":ok");
+                }
+                catch (Exception ex) {
+                    logs.add(env.getNow() + ":" + ex.getMessage());
+                }
+            }
+        });
+        env.process("q", y -> {
+            y.call(env.timeout(3));
+            alarm.fail(new Exception("fire"));
+            y.call(env.timeout(3));
+            alarm.succeed(null);
+        });
+        env.run();
+        Assert.assertEquals("[3:fire, 6:ok]", logs.toString());
+    }
+
+    @Test
+    public void testNoAllocation() {
+        java.lang.management.ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(mx instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean tmx = (com.sun.management.ThreadMXBean) mx;
+        Assume.assumeTrue(tmx.isThreadAllocatedMemorySupported() && tmx.isThreadAllocatedMemoryEnabled());
+
+        // warm up
+        sample(10000);
+
+        long tid = Thread.currentThread().getId();
+        long bytes = tmx.getThreadAllocatedBytes(tid);
+        sample(100000);
+        bytes = tmx.getThreadAllocatedBytes(tid) - bytes;
+        System.out.println("every: 100000 ticks, " + bytes + " bytes");
+        // only the job of the schedule is created per tick.
+        Assert.assertTrue(bytes + " bytes", bytes < 100000 * 64);
+    }
+
+    private void sample(int ticks) {
+        final Env env = new Env();
+        final Signal tick = env.every(1);
+        final long[] count = new long[1];
+        Consumer<Event> sampler = new Consumer<Event>() {
+
+            @Override
+            public void accept(Event e) {
+                if (!e.isEnvDown()) {
+                    count[0]++;
+                    e.addCallable(this);
+                }
+            }
+        };
+        tick.addCallable(sampler);
+        env.run(ticks);
+        Assert.assertEquals(ticks - 1, count[0]);
+    }
+}
@@ -0,0 +1,100 @@
+package uia.sim;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the locked paths with the single-threaded environment.<br>
+ *
+ * <p>
+ * The model is made of step processes, no thread is involved, only the cost of the events is measured.
+ * Each step waits a timeout and hands a token to the next process with an event.
+ * </p>
+ *
+ * <ul>
+ * <li>locked - the default environment.</li>
+ * <li>single - the single-threaded environment.</li>
+ * <li>confined - the single-threaded environment checking the thread confinement.</li>
+ * </ul>
+ *
+ * <pre>
+ * mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test -Dexec.args="-cp %classpath uia.sim.SingleThreadedBenchmark"
+ * </pre>
+ *
+ * @author Kan
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SingleThreadedBenchmark {
+
+    private static final int PROCESSES = 100;
+
+    private static final int STEPS = 100;
+
+    @Param({ "locked", "single", "confined" })
+    public String mode;
+
+    @Benchmark
+    @OperationsPerInvocation(PROCESSES * STEPS)
+    public int step() {
+        final Env env = new Env();
+        env.setSingleThreaded(!"locked".equals(this.mode));
+        env.setConfined("confined".equals(this.mode));
+        for (int i = 0; i < PROCESSES; i++) {
+            env.stepProcess("p" + i, new Step(env));
+        }
+        return env.run();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(SingleThreadedBenchmark.class.getSimpleName())
+                .build())
+                        .run();
+    }
+
+    private static class Step implements Function<Event, Event> {
+
+        private final Env env;
+
+        private int n;
+
+        Step(Env env) {
+            this.env = env;
+        }
+
+        @Override
+        public Event apply(Event by) {
+            if (this.n++ == STEPS) {
+                return null;
+            }
+            if ((this.n & 1) == 0) {
+                return this.env.timeout(1);
+            }
+            Event token = this.env.event("token");
+            token.succeed(this.n);
+            return token;
+        }
+    }
+}
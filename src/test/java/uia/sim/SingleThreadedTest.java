@@ -0,0 +1,120 @@
+package uia.sim;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import uia.sim.resources.Container;
+
+public class SingleThreadedTest {
+
+    @Test
+    public void testSameResult() {
+        List<String> locked = model(false);
+        List<String> single = model(true);
+        Assert.assertEquals(locked, single);
+        Assert.assertEquals(
+                "[3:p3:step, 3:p1:notified, 3:p2:notified, 5:p2:timeout, 6:p3:step, 6:p1:charged, 9:p3:step, 11:p1:done]",
+                single.toString());
+    }
+
+    @Test
+    public void testConfined() throws InterruptedException {
+        final Env env = new Env();
+        env.setSingleThreaded(true);
+        env.setConfined(true);
+        Assert.assertTrue(env.isSingleThreaded());
+        Assert.assertTrue(env.isConfined());
+
+        // the processes run on their own threads but one at a time.
+        env.process("p", y -> {
+            y.call(env.timeout(5));
+            y.call(env.event("e").or(env.timeout(1)));
+        });
+
+        final AtomicReference<Exception> result = new AtomicReference<>();
+        Thread th = new Thread(() -> {
+            try {
+                env.timeout(1);
+            }
+            catch (Exception ex) {
+                result.set(ex);
+            }
+        });
+        th.start();
+        th.join();
+        Assert.assertTrue(result.get() instanceof IllegalStateException);
+
+        Assert.assertEquals(6, env.run());
+    }
+
+    @Test
+    public void testParallel() {
+        Env env = new Env();
+        env.setSingleThreaded(true);
+        try {
+            env.setParallel(true);
+            Assert.fail("single-threaded");
+        }
+        catch (IllegalStateException ex) {
+        }
+
+        Env env2 = new Env();
+        env2.setParallel(true);
+        try {
+            env2.setSingleThreaded(true);
+            Assert.fail("parallel");
+        }
+        catch (IllegalStateException ex) {
+        }
+    }
+
+    private List<String> model(boolean singleThreaded) {
+        final Env env = new Env();
+        env.setSingleThreaded(singleThreaded);
+        final List<String> logs = new ArrayList<>();
+        final Notifier<String> notifier = new Notifier<>(env, "n");
+        final Container res = new Container(env, 10);
+        env.process("p1", y -> {
+            y.call(notifier.waiting("p1"));
+            logs.add(env.getNow() + ":p1:notified");
+            try (Container.Request req = res.request("r1", 20)) {
+                y.call(req);
+                logs.add(env.getNow() + ":p1:charged");
+                req.consume(20);
+            }
+            y.call(env.timeout(5));
+            logs.add(env.getNow() + ":p1:done");
+        });
+        env.process("p2", y -> {
+            y.call(notifier.waiting("p2", 5));
+            logs.add(env.getNow() + ":p2:notified");
+            y.call(env.timeout(2));
+            logs.add(env.getNow() + ":p2:timeout");
+        });
+        env.stepProcess("p3", new Function<Event, Event>() {
+
+            private int i = 0;
+
+            @Override
+            public Event apply(Event e) {
+                if (this.i++ > 0) {
+                    logs.add(env.getNow() + ":p3:step");
+                }
+                if (this.i == 2) {
+                    notifier.available("p3");
+                }
+                if (this.i == 3) {
+                    res.release("r2", 10);
+                }
+                return this.i > 3 ? null : env.timeout(3);
+            }
+        });
+        env.run();
+        return logs;
+    }
+}
@@ -0,0 +1,183 @@
+package uia.sim;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import uia.cor.Carriers;
+import uia.sim.events.ConditionValue;
+import uia.sim.events.Process;
+import uia.sim.resources.Resource;
+
+public class StepProcessTest {
+
+    @Test
+    public void testTimeout() {
+        AtomicInteger created = new AtomicInteger();
+        Env env = new Env();
+        env.setCarrier(Carriers.of(r -> {
+            created.incrementAndGet();
+            return new Thread(r);
+        }));
+        Hello hello = new Hello("Jack", 3);
+        Process proc = env.process(hello);
+        env.run();
+        Assert.assertEquals(30, env.getNow());
+        Assert.assertEquals(3, hello.times.size());
+        Assert.assertEquals(30, (int) hello.times.get(2));
+        Assert.assertFalse(proc.isAlive());
+        Assert.assertEquals("Jack", proc.getValue());
+        Assert.assertEquals(0, created.get());
+    }
+
+    @Test
+    public void testCondition() {
+        Env env = new Env();
+        List<Object> logs = new ArrayList<>();
+        env.stepProcess("cond", new Function<Event, Event>() {
+
+            private int state;
+
+            @Override
+            public Event apply(Event by) {
+                switch (this.state++) {
+                    case 0:
+                        return env.timeout(5).or(env.timeout(10));
+                    case 1:
+                        logs.add(env.getNow());
+                        logs.add(((ConditionValue) by.getValue()).getEvents().size());
+                        return env.timeout(5).and(env.timeout(10));
+                    default:
+                        logs.add(env.getNow());
+                        logs.add(((ConditionValue) by.getValue()).getEvents().size());
+                        return null;
+                }
+            }
+        });
+        env.run();
+        Assert.assertEquals("[5, 1, 15, 2]", logs.toString());
+    }
+
+    @Test
+    public void testResource() {
+        Env env = new Env();
+        Resource res = new Resource(env, 1);
+        List<String> logs = new ArrayList<>();
+        env.process(new Car("car1", res, logs));
+        env.process(new Car("car2", res, logs));
+        env.run();
+        Assert.assertEquals("[0 car1 in, 10 car1 out, 10 car2 in, 20 car2 out]", logs.toString());
+    }
+
+    @Test
+    public void testInterrupt() {
+        Env env = new Env();
+        List<String> logs = new ArrayList<>();
+        Process driver = env.stepProcess("driver", new Function<Event, Event>() {
+
+            private int state;
+
+            @Override
+            public Event apply(Event by) {
+                switch (this.state++) {
+                    case 0:
+                        return env.timeout(100);
+                    default:
+                        logs.add(env.getNow() + " " + by.isOk() + " " + ((Exception) by.getValue()).getMessage());
+                        return null;
+                }
+            }
+        });
+        env.process("boss", y -> {
+            y.call(env.timeout(20));
+            driver.interrupt("go home");
+        });
+        env.run();
+        Assert.assertEquals("[20 false go home]", logs.toString());
+        Assert.assertFalse(driver.isAlive());
+    }
+
+    @Test
+    public void testWithProcess() {
+        Env env = new Env();
+        Process child = env.process(new Hello("child", 2));
+        env.process("parent", y -> {
+            Object value = y.call(child);
+            Assert.assertEquals("child", value);
+            Assert.assertEquals(20, env.getNow());
+        });
+        env.run();
+        Assert.assertEquals(20, env.getNow());
+    }
+
+    public static class Hello extends Steppable {
+
+        private final int repeat;
+
+        private final List<Integer> times;
+
+        private int count;
+
+        public Hello(String id, int repeat) {
+            super(id);
+            this.repeat = repeat;
+            this.times = new ArrayList<>();
+        }
+
+        @Override
+        protected Event step(Event by) {
+            if (this.count > 0) {
+                this.times.add(now());
+            }
+            if (this.count++ < this.repeat) {
+                return env().timeout(10);
+            }
+            return finish(getId());
+        }
+
+        @Override
+        protected void initial() {
+        }
+    }
+
+    public static class Car extends Steppable {
+
+        private final Resource res;
+
+        private final List<String> logs;
+
+        private Resource.Request request;
+
+        private int state;
+
+        public Car(String id, Resource res, List<String> logs) {
+            super(id);
+            this.res = res;
+            this.logs = logs;
+        }
+
+        @Override
+        protected Event step(Event by) {
+            switch (this.state++) {
+                case 0:
+                    this.request = this.res.request(getId());
+                    return this.request;
+                case 1:
+                    this.logs.add(now() + " " + getId() + " in");
+                    return env().timeout(10);
+                default:
+                    this.logs.add(now() + " " + getId() + " out");
+                    this.request.close();
+                    return null;
+            }
+        }
+
+        @Override
+        protected void initial() {
+        }
+    }
+}
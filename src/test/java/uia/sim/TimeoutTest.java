@@ -1,6 +1,7 @@
 package uia.sim;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Vector;
 import java.util.function.Consumer;
 
@@ -120,4 +121,100 @@ public class TimeoutTest {
         env.run();
     }
 
+    @Test
+    public void testCancel() {
+        Env env = new Env();
+        Timeout t = env.timeout(5);
+        t.addCallable(e -> Assert.fail("cancelled"));
+        env.process("p", y -> {
+            y.call(env.timeout(3));
+            Assert.assertTrue(t.cancel());
+            Assert.assertFalse(t.cancel());
+            Assert.assertTrue(t.isCancelled());
+        });
+        // the time does not move to the cancelled one.
+        Assert.assertEquals(3, env.run());
+    }
+
+    @Test
+    public void testCancelCount() {
+        Env env = new Env();
+        // triggered but never scheduled.
+        Event e = new Event(env, "e", 1);
+        Assert.assertTrue(e.isTriggered());
+        Assert.assertTrue(e.cancel());
+        Assert.assertEquals(0, env.getCancelledJobs());
+
+        Assert.assertTrue(env.timeout(5).cancel());
+        Assert.assertEquals(1, env.getCancelledJobs());
+        env.run();
+        Assert.assertEquals(0, env.getCancelledJobs());
+    }
+
+    @Test
+    public void testCancelThenSucceed() {
+        Env env = new Env();
+        env.setCompactThreshold(1);
+        Event e = env.event("e");
+        e.addCallable(x -> Assert.fail("cancelled"));
+        Assert.assertTrue(e.cancel());
+        Assert.assertEquals(0, env.getCancelledJobs());
+
+        // no tombstone is left in the event queue.
+        e.succeed(1);
+        Assert.assertEquals(0, env.size());
+        Assert.assertEquals(0, env.getCancelledJobs());
+
+        Event f = env.event("f");
+        f.cancel();
+        env.scheduleAll(Arrays.asList(new Env.Job(f, Event.PriorityType.NORMAL, 3), new Env.Job(env.event("g"), Event.PriorityType.NORMAL, 2)));
+        Assert.assertEquals(1, env.size());
+        Assert.assertEquals(2, env.run());
+    }
+
+    @Test
+    public void testCancelWaiting() {
+        Env env = new Env();
+        Timeout t = env.timeout("t", 10);
+        ArrayList<String> logs = new ArrayList<>();
+        env.process("p", y -> {
+            try {
+                y.call(t);
+                logs.add(env.getNow() + ":ok");
+            }
+            catch (Exception ex) {
+                logs.add(env.getNow() + ":" + ex.getMessage());
+            }
+        });
+        env.stepProcess("s", by -> {
+            if (by == t || by.getValue() instanceof Exception) {
+                logs.add(env.getNow() + ":" + by.isOk());
+                return null;
+            }
+            return t;
+        });
+        env.process("q", y -> {
+            y.call(env.timeout(3));
+            t.cancel();
+        });
+        Assert.assertEquals(3, env.run());
+        Assert.assertEquals("[3:t cancelled, 3:false]", logs.toString());
+    }
+
+    @Test
+    public void testCompact() {
+        Env env = new Env();
+        env.setCompactThreshold(100);
+        ArrayList<Timeout> timeouts = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            timeouts.add(env.timeout(i + 1));
+        }
+        for (int i = 100; i < 1000; i++) {
+            timeouts.get(i).cancel();
+        }
+        Assert.assertEquals(100, env.size() - env.getCancelledJobs());
+        Assert.assertTrue(env.size() < 200);
+        Assert.assertEquals(100, env.run());
+    }
+
 }
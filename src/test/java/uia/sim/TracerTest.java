@@ -0,0 +1,70 @@
+package uia.sim;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import uia.sim.Env.Job;
+import uia.sim.events.Process;
+
+public class TracerTest {
+
+    @Test
+    public void testTracer() {
+        List<String> logs = new ArrayList<>();
+        Env env = new Env();
+        Assert.assertNull(env.getTracer());
+        env.setTracer(new Tracer() {
+
+            @Override
+            public void onSchedule(Env env, Job job) {
+                logs.add(env.getNow() + ":sch:" + job.event + "@" + job.time);
+            }
+
+            @Override
+            public void onStep(Env env, Job job) {
+                logs.add(env.getNow() + ":step:" + job.event);
+            }
+
+            @Override
+            public void onYield(Process process, Event event) {
+                logs.add(env.getNow() + ":yield:" + process.getId() + ":" + event);
+            }
+
+            @Override
+            public void onDone(Process process) {
+                logs.add(env.getNow() + ":done:" + process.getId());
+            }
+        });
+        env.process("p", y -> {
+            y.call(env.timeout("t", 5));
+        });
+        env.run();
+        Assert.assertEquals(
+                "[0:sch:Init(p)@0, 0:step:Init(p), 0:sch:Timeout(t)@5, 0:yield:p:Timeout(t), 5:step:Timeout(t), 5:done:p, 5:sch:Proc(p)@5, 5:step:Proc(p)]",
+                logs.toString());
+    }
+
+    @Test
+    public void testLogTracer() {
+        Env.DEBUG = true;
+        try {
+            Env env = new Env();
+            env.setTracer(new LogTracer());
+            Process p = env.process("p", y -> {
+                y.call(env.timeout("t", 5));
+                y.call(env.timeout("t", 5).or(env.event("e")));
+            });
+            env.process("q", y -> {
+                y.call(env.timeout(1));
+                p.interrupt("stop");
+            });
+            env.run();
+        }
+        finally {
+            Env.DEBUG = false;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package uia.sim.arrivals;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import uia.sim.Env;
+import uia.sim.Event.PriorityType;
+
+public class MappedArrivalSourceTest {
+
+    @Test
+    public void testRead() throws IOException {
+        File file = write(1000, 0);
+        // a small window to map the file many times.
+        try (MappedArrivalSource source = new MappedArrivalSource(
+                file.toPath(),
+                b -> StandardCharsets.UTF_8.decode(b).toString(),
+                64)) {
+            for (int i = 0; i < 1000; i++) {
+                Assert.assertTrue(source.next());
+                Assert.assertEquals(i / 2, source.getTime());
+                Assert.assertEquals(PriorityType.values()[i % 4], source.getPriority());
+                Assert.assertEquals("lot" + i, source.getValue());
+            }
+            Assert.assertFalse(source.next());
+            Assert.assertEquals(1000, source.getCount());
+        }
+        finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testClose() throws IOException {
+        File file = write(10, 0);
+        try {
+            MappedArrivalSource source = new MappedArrivalSource(file.toPath());
+            Assert.assertTrue(source.next());
+            Assert.assertTrue(source.next());
+            source.close();
+            // the end after closed, not read from the beginning again.
+            Assert.assertFalse(source.next());
+            Assert.assertFalse(source.next());
+            Assert.assertEquals(2, source.getCount());
+            source.close();
+        }
+        finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testEnv() throws IOException {
+        File file = write(100, 0);
+        try {
+            Env env = new Env();
+            List<String> logs = new ArrayList<>();
+            env.process("p", y -> {
+                for (int i = 0; i < 5; i++) {
+                    y.call(env.timeout(10));
+                    logs.add(env.getNow() + "p");
+                }
+            });
+            env.arrivals("lot", new MappedArrivalSource(file.toPath()), e -> {
+                // only the next arrival is in the queue.
+                Assert.assertTrue(env.size() <= 3);
+                String lot = new String((byte[]) e.getValue(), StandardCharsets.UTF_8);
+                if (env.getNow() % 10 == 0) {
+                    logs.add(env.getNow() + lot);
+                }
+            });
+            Assert.assertEquals(50, env.run());
+            // the arrivals of URGENT and HIGH at the time of the timeout go first.
+            Assert.assertEquals(
+                    "[0lot0, 0lot1, 10lot20, 10lot21, 10p, 20lot40, 20lot41, 20p, 30lot60, 30lot61, 30p, 40lot80, 40lot81, 40p, 50p]",
+                    logs.toString());
+        }
+        finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testUnsorted() throws IOException {
+        File file = write(10, 5);
+        try (MappedArrivalSource source = new MappedArrivalSource(file.toPath())) {
+            for (int i = 0; i < 5; i++) {
+                Assert.assertTrue(source.next());
+            }
+            source.next();
+            Assert.fail("unsorted");
+        }
+        catch (IllegalStateException ex) {
+        }
+        finally {
+            file.delete();
+        }
+    }
+
+    /**
+     * Writes the records, 2 records at a time.
+     *
+     * @param n The number of records.
+     * @param back The record going back to time 0.
+     * @return The file.
+     * @throws IOException Failed to write.
+     */
+    private File write(int n, int back) throws IOException {
+        File file = File.createTempFile("arrivals", ".bin");
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(file))) {
+            for (int i = 0; i < n; i++) {
+                byte[] payload = ("lot" + i).getBytes(StandardCharsets.UTF_8);
+                out.writeLong(i == back && back > 0 ? 0 : i / 2);
+                out.writeByte(i % 4);
+                out.writeInt(payload.length);
+                out.write(payload);
+            }
+        }
+        return file;
+    }
+}
@@ -0,0 +1,102 @@
+package uia.sim.queues;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import uia.sim.Env;
+import uia.sim.Env.Job;
+import uia.sim.Event;
+import uia.sim.Event.PriorityType;
+
+public class CalendarQueueTest {
+
+    @Test
+    public void testResize() {
+        Env env = new Env();
+        CalendarQueue queue = new CalendarQueue();
+        List<Job> expected = new ArrayList<>();
+        Random r = new Random(3);
+        for (int i = 0; i < 10000; i++) {
+            Job job = new Job(new Event(env, "e" + i), PriorityType.NORMAL, r.nextInt(100000));
+            queue.add(job);
+            expected.add(job);
+        }
+        Assert.assertTrue(queue.getBuckets() >= 4096);
+        Assert.assertTrue(queue.getWidth() > 1);
+
+        Collections.sort(expected);
+        for (Job job : expected) {
+            Assert.assertSame(job, queue.poll());
+        }
+        Assert.assertEquals(16, queue.getBuckets());
+        Assert.assertNull(queue.poll());
+    }
+
+    @Test
+    public void testEarlier() {
+        Env env = new Env();
+        CalendarQueue queue = new CalendarQueue(16, 10);
+        Job j100 = new Job(new Event(env, "a"), PriorityType.NORMAL, 100);
+        Job j500 = new Job(new Event(env, "b"), PriorityType.NORMAL, 500);
+        queue.add(j500);
+        queue.add(j100);
+        Assert.assertSame(j100, queue.poll());
+
+        // earlier than the last polled one.
+        Job j20 = new Job(new Event(env, "c"), PriorityType.NORMAL, 20);
+        queue.add(j20);
+        Assert.assertSame(j20, queue.peek());
+
+        // the same time but a higher priority after peek().
+        Job j20u = new Job(new Event(env, "d"), PriorityType.URGENT, 20);
+        queue.add(j20u);
+        Assert.assertSame(j20u, queue.poll());
+        Assert.assertSame(j20, queue.poll());
+        Assert.assertSame(j500, queue.poll());
+        Assert.assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testDistributions() {
+        for (String dist : new String[] { "uniform", "exponential", "bimodal", "same" }) {
+            Env env = new Env();
+            Random r = new Random(4);
+            CalendarQueue queue = new CalendarQueue();
+            PriorityQueue<Job> expected = new PriorityQueue<>();
+            for (int i = 0; i < 3000; i++) {
+                Job job = new Job(new Event(env, "e" + i), PriorityType.values()[i % 4], next(dist, r));
+                queue.add(job);
+                expected.add(job);
+            }
+            for (int i = 0; i < 50000; i++) {
+                Job job = queue.poll();
+                Assert.assertSame(dist, expected.poll(), job);
+                Job hold = new Job(job.event, job.priority, job.time + next(dist, r));
+                queue.add(hold);
+                expected.add(hold);
+            }
+            while (!expected.isEmpty()) {
+                Assert.assertSame(dist, expected.poll(), queue.poll());
+            }
+        }
+    }
+
+    private int next(String dist, Random r) {
+        switch (dist) {
+            case "uniform":
+                return r.nextInt(200);
+            case "exponential":
+                return (int) (-100 * Math.log(1 - r.nextDouble()));
+            case "bimodal":
+                return r.nextInt(10) < 9 ? r.nextInt(10) : 1000 + r.nextInt(1000);
+            default:
+                return 0;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package uia.sim.queues;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import uia.sim.Env;
+import uia.sim.Env.Job;
+import uia.sim.Event.PriorityType;
+import uia.sim.EventQueue;
+import uia.sim.events.Timeout;
+
+/**
+ * Compares the event queues with the hold model.<br>
+ *
+ * <p>
+ * The queue is filled with <b>size</b> jobs, each hold operation polls the first job and
+ * adds it back with a random increment of time, so the size of the queue is steady.
+ * </p>
+ *
+ * <ul>
+ * <li>uniform - the increment is uniform in [0, 200).</li>
+ * <li>exponential - the increment is exponential with mean 100.</li>
+ * <li>bimodal - 90% of the increments are uniform in [0, 10), 10% are uniform in [1000, 2000).</li>
+ * <li>zero - 80% of the increments are 0, the others are exponential with mean 100. A resource-heavy model.</li>
+ * </ul>
+ *
+ * <pre>
+ * mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test -Dexec.args="-cp %classpath uia.sim.queues.EventQueueBenchmark"
+ * </pre>
+ *
+ * @author Kan
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventQueueBenchmark {
+
+    private static final int INCREMENTS = 1 << 16;
+
+    @Param({ "heap2", "heap4", "heap8", "blocking", "calendar", "lane", "wheel" })
+    public String queue;
+
+    @Param({ "100", "10000", "1000000" })
+    public int size;
+
+    @Param({ "uniform", "exponential", "bimodal", "zero" })
+    public String distribution;
+
+    private EventQueue jobs;
+
+    private int[] increments;
+
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Env.DEBUG = false;
+        Random r = new Random(1);
+        this.increments = new int[INCREMENTS];
+        for (int i = 0; i < INCREMENTS; i++) {
+            this.increments[i] = increment(this.distribution, r);
+        }
+
+        Env env = new Env();
+        this.jobs = create(this.queue);
+        for (int i = 0; i < this.size; i++) {
+            // the hold model is a model of timeouts.
+            this.jobs.add(new Job(new Timeout(env, "e" + i, 0), PriorityType.NORMAL, increment()));
+        }
+    }
+
+    @Benchmark
+    public Job hold() {
+        Job job = this.jobs.poll();
+        this.jobs.add(new Job(job.event, job.priority, job.time + increment()));
+        return job;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(EventQueueBenchmark.class.getSimpleName())
+                .build())
+                        .run();
+    }
+
+    static EventQueue create(String name) {
+        switch (name) {
+            case "heap2":
+                return new DaryHeapQueue(2);
+            case "heap8":
+                return new DaryHeapQueue(8);
+            case "blocking":
+                return new BlockingPriorityQueue();
+            case "calendar":
+                return new CalendarQueue();
+            case "lane":
+                return new FastLaneQueue();
+            case "wheel":
+                return new TimerWheelQueue();
+            default:
+                return new DaryHeapQueue(4);
+        }
+    }
+
+    static int increment(String distribution, Random r) {
+        switch (distribution) {
+            case "uniform":
+                return r.nextInt(200);
+            case "bimodal":
+                return r.nextInt(10) < 9 ? r.nextInt(10) : 1000 + r.nextInt(1000);
+            case "zero":
+                return r.nextInt(10) < 8 ? 0 : (int) (-100 * Math.log(1 - r.nextDouble()));
+            default:
+                return (int) (-100 * Math.log(1 - r.nextDouble()));
+        }
+    }
+
+    private int increment() {
+        return this.increments[this.next++ & (INCREMENTS - 1)];
+    }
+}
@@ -0,0 +1,206 @@
+package uia.sim.queues;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import uia.sim.Env;
+import uia.sim.Env.Job;
+import uia.sim.Event;
+import uia.sim.Event.PriorityType;
+import uia.sim.EventQueue;
+
+public class EventQueueTest {
+
+    @Test
+    public void testOrder() {
+        testOrder(() -> new DaryHeapQueue(2));
+        testOrder(() -> new DaryHeapQueue(4, 1));
+        testOrder(() -> new DaryHeapQueue(8));
+        testOrder(BlockingPriorityQueue::new);
+        testOrder(CalendarQueue::new);
+        testOrder(FastLaneQueue::new);
+        testOrder(TimerWheelQueue::new);
+    }
+
+    @Test
+    public void testHold() {
+        // poll one, add one later than it.
+        testHold(() -> new DaryHeapQueue(2));
+        testHold(DaryHeapQueue::new);
+        testHold(BlockingPriorityQueue::new);
+        testHold(CalendarQueue::new);
+        testHold(FastLaneQueue::new);
+        testHold(() -> new FastLaneQueue(new CalendarQueue()));
+        testHold(TimerWheelQueue::new);
+    }
+
+    @Test
+    public void testAddAll() {
+        testAddAll(() -> new DaryHeapQueue(2));
+        testAddAll(() -> new DaryHeapQueue(4, 1));
+        testAddAll(BlockingPriorityQueue::new);
+        testAddAll(CalendarQueue::new);
+        testAddAll(FastLaneQueue::new);
+        testAddAll(TimerWheelQueue::new);
+    }
+
+    @Test
+    public void testRemoveIf() {
+        testRemoveIf(() -> new DaryHeapQueue(3));
+        testRemoveIf(BlockingPriorityQueue::new);
+        testRemoveIf(CalendarQueue::new);
+        testRemoveIf(FastLaneQueue::new);
+        testRemoveIf(TimerWheelQueue::new);
+    }
+
+    @Test
+    public void testEnv() {
+        Assert.assertTrue(new Env().getQueue() instanceof FastLaneQueue);
+        Assert.assertEquals(
+                run(new Env("heap", 0, new DaryHeapQueue())),
+                run(new Env("blocking", 0, new BlockingPriorityQueue())));
+        Assert.assertEquals(
+                run(new Env("heap", 0, new DaryHeapQueue())),
+                run(new Env("calendar", 0, new CalendarQueue())));
+        Assert.assertEquals(
+                run(new Env("heap", 0, new DaryHeapQueue())),
+                run(new Env("lane", 0, new FastLaneQueue())));
+        Assert.assertEquals(
+                run(new Env("heap", 0, new DaryHeapQueue())),
+                run(new Env("wheel", 0, new TimerWheelQueue())));
+        try {
+            EventQueue queue = new DaryHeapQueue();
+            queue.add(new Job(new Event(null, "e"), PriorityType.NORMAL, 0));
+            new Env("env", 0, queue);
+            Assert.fail("not empty");
+        }
+        catch (IllegalArgumentException ex) {
+        }
+    }
+
+    private void testOrder(Supplier<EventQueue> supplier) {
+        Env env = new Env();
+        Random r = new Random(1);
+        PriorityType[] priorities = PriorityType.values();
+        EventQueue queue = supplier.get();
+        List<Job> expected = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            Job job = new Job(new Event(env, "e" + i), priorities[r.nextInt(priorities.length)], r.nextInt(100));
+            queue.add(job);
+            expected.add(job);
+        }
+        Assert.assertEquals(2000, queue.size());
+        Collections.sort(expected);
+        for (Job job : expected) {
+            Assert.assertSame(job, queue.peek());
+            Assert.assertSame(job, queue.poll());
+        }
+        Assert.assertTrue(queue.isEmpty());
+        Assert.assertNull(queue.poll());
+        Assert.assertNull(queue.peek());
+    }
+
+    private void testAddAll(Supplier<EventQueue> supplier) {
+        Env env = new Env();
+        Random r = new Random(6);
+        PriorityType[] priorities = PriorityType.values();
+        EventQueue queue = supplier.get();
+        List<Job> expected = new ArrayList<>();
+        // a large batch into the empty queue, a small batch into the filled queue.
+        for (int n : new int[] { 1000, 100 }) {
+            List<Job> batch = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                Event event = i % 2 == 0 ? new Event(env, "e" + i) : env.timeout(0);
+                batch.add(new Job(event, priorities[r.nextInt(priorities.length)], r.nextInt(3) == 0 ? 0 : r.nextInt(500)));
+            }
+            queue.addAll(batch);
+            expected.addAll(batch);
+        }
+        Assert.assertEquals(1100, queue.size());
+        Collections.sort(expected);
+        for (Job job : expected) {
+            Assert.assertSame(job, queue.poll());
+        }
+        Assert.assertTrue(queue.isEmpty());
+    }
+
+    private void testRemoveIf(Supplier<EventQueue> supplier) {
+        Env env = new Env();
+        Random r = new Random(4);
+        EventQueue queue = supplier.get();
+        List<Job> all = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            Event event = i % 2 == 0 ? new Event(env, "e" + i) : env.timeout(0);
+            Job job = new Job(event, PriorityType.NORMAL, r.nextInt(3) == 0 ? 0 : r.nextInt(500));
+            queue.add(job);
+            all.add(job);
+        }
+        Collections.sort(all);
+        // polls some to move the queue.
+        for (int i = 0; i < 10; i++) {
+            Assert.assertSame(all.remove(0), queue.poll());
+        }
+        Set<Job> removed = new HashSet<>();
+        List<Job> expected = new ArrayList<>();
+        for (Job job : all) {
+            if (r.nextInt(3) == 0) {
+                removed.add(job);
+            }
+            else {
+                expected.add(job);
+            }
+        }
+        Assert.assertEquals(removed.size(), queue.removeIf(removed::contains));
+        Assert.assertEquals(expected.size(), queue.size());
+        for (Job job : expected) {
+            Assert.assertSame(job, queue.poll());
+        }
+        Assert.assertTrue(queue.isEmpty());
+    }
+
+    private void testHold(Supplier<EventQueue> supplier) {
+        Env env = new Env();
+        Random r = new Random(2);
+        EventQueue queue = supplier.get();
+        for (int i = 0; i < 100; i++) {
+            queue.add(new Job(new Event(env, "e" + i), PriorityType.NORMAL, r.nextInt(10)));
+        }
+        long now = 0;
+        for (int i = 0; i < 10000; i++) {
+            Job job = queue.poll();
+            Assert.assertTrue(job.time >= now);
+            now = job.time;
+            queue.add(new Job(job.event, PriorityType.NORMAL, now + r.nextInt(10)));
+        }
+        Assert.assertEquals(100, queue.size());
+        int count = 0;
+        for (Job job : queue) {
+            Assert.assertNotNull(job);
+            count++;
+        }
+        Assert.assertEquals(100, count);
+    }
+
+    private String run(Env env) {
+        List<String> logs = new ArrayList<>();
+        for (int p = 0; p < 5; p++) {
+            final int d = p + 1;
+            env.process("p" + p, y -> {
+                for (int i = 0; i < 4; i++) {
+                    y.call(env.timeout(d));
+                    logs.add(env.getNow() + ":p" + d);
+                }
+            });
+        }
+        env.run();
+        return logs.toString();
+    }
+}
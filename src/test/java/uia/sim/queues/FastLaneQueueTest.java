@@ -0,0 +1,131 @@
+package uia.sim.queues;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import uia.sim.Env;
+import uia.sim.Env.Job;
+import uia.sim.Event;
+import uia.sim.Event.PriorityType;
+
+public class FastLaneQueueTest {
+
+    @Test
+    public void testSameTime() {
+        Env env = new Env();
+        FastLaneQueue queue = new FastLaneQueue();
+        Event old = new Event(env, "old");
+        // the current time moves to 10.
+        Job j0 = new Job(new Event(env, "0"), PriorityType.NORMAL, 10);
+        queue.add(j0);
+        Assert.assertSame(j0, queue.poll());
+
+        Job j1 = new Job(new Event(env, "a"), PriorityType.NORMAL, 10);
+        Job j2 = new Job(new Event(env, "b"), PriorityType.URGENT, 10);
+        Job j3 = new Job(new Event(env, "c"), PriorityType.NORMAL, 20);
+        queue.add(j1);
+        queue.add(j2);
+        queue.add(j3);
+        Assert.assertEquals(1, queue.getTimed().size());
+        Assert.assertSame(j2, queue.poll());
+
+        // created before the others, it goes first in the lane.
+        Job j4 = new Job(old, PriorityType.NORMAL, 10);
+        queue.add(j4);
+        Assert.assertSame(j4, queue.poll());
+        Assert.assertSame(j1, queue.poll());
+        Assert.assertSame(j3, queue.poll());
+        Assert.assertTrue(queue.isEmpty());
+
+        // the current time is 20.
+        Job j5 = new Job(new Event(env, "e"), PriorityType.LOW, 20);
+        Job j6 = new Job(new Event(env, "f"), PriorityType.LOW, 15);
+        queue.add(j5);
+        queue.add(j6);
+        Assert.assertEquals(1, queue.getTimed().size());
+        Assert.assertSame(j6, queue.peek());
+        Assert.assertSame(j6, queue.poll());
+        Assert.assertSame(j5, queue.poll());
+        Assert.assertNull(queue.poll());
+    }
+
+    @Test
+    public void testFutureOnEmpty() {
+        Env env = new Env();
+        FastLaneQueue queue = new FastLaneQueue();
+        Job j0 = new Job(new Event(env, "init"), PriorityType.URGENT, 0);
+        queue.add(j0);
+        Assert.assertSame(j0, queue.poll());
+        Assert.assertTrue(queue.isEmpty());
+
+        // a timeout on the empty queue does not move the current time.
+        Job timeout = new Job(new Event(env, "timeout"), PriorityType.NORMAL, 5);
+        queue.add(timeout);
+        Assert.assertEquals(1, queue.getTimed().size());
+
+        // the jobs at the current time still use the lanes.
+        Job j1 = new Job(new Event(env, "a"), PriorityType.NORMAL, 0);
+        Job j2 = new Job(new Event(env, "b"), PriorityType.URGENT, 0);
+        queue.add(j1);
+        queue.add(j2);
+        Assert.assertEquals(1, queue.getTimed().size());
+        Assert.assertSame(j2, queue.poll());
+        Assert.assertSame(j1, queue.poll());
+        Assert.assertSame(timeout, queue.poll());
+
+        // the same in bulk.
+        Job j3 = new Job(new Event(env, "c"), PriorityType.NORMAL, 9);
+        Job j4 = new Job(new Event(env, "d"), PriorityType.NORMAL, 5);
+        queue.addAll(Arrays.asList(j3, j4));
+        Assert.assertEquals(1, queue.getTimed().size());
+        Assert.assertSame(j4, queue.poll());
+        Assert.assertSame(j3, queue.poll());
+        Assert.assertNull(queue.poll());
+    }
+
+    @Test
+    public void testZeroDelay() {
+        Env env = new Env();
+        Random r = new Random(5);
+        PriorityType[] priorities = PriorityType.values();
+        List<Event> events = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            events.add(new Event(env, "e" + i));
+        }
+
+        FastLaneQueue queue = new FastLaneQueue(new CalendarQueue());
+        PriorityQueue<Job> expected = new PriorityQueue<>();
+        for (int i = 0; i < 100; i++) {
+            Job job = new Job(events.get(i), priorities[r.nextInt(4)], r.nextInt(20));
+            queue.add(job);
+            expected.add(job);
+        }
+        for (int i = 0; i < 50000; i++) {
+            Job job = queue.poll();
+            // an old event could be scheduled twice, compares the keys.
+            Assert.assertEquals(0, expected.poll().compareTo(job));
+            int n = r.nextInt(3);
+            for (int k = 0; k < n || queue.size() < 50; k++) {
+                // 80% at the current time, some of them are the events created before.
+                int delay = r.nextInt(10) < 8 ? 0 : r.nextInt(50);
+                Event event = r.nextBoolean() ? new Event(env, "n" + i) : events.get(r.nextInt(events.size()));
+                Job next = new Job(event, priorities[r.nextInt(4)], job.time + delay);
+                queue.add(next);
+                expected.add(next);
+            }
+            while (queue.size() > 200) {
+                Assert.assertEquals(0, expected.poll().compareTo(queue.poll()));
+            }
+        }
+        while (!expected.isEmpty()) {
+            Assert.assertEquals(0, expected.poll().compareTo(queue.poll()));
+        }
+        Assert.assertTrue(queue.isEmpty());
+    }
+}
@@ -0,0 +1,81 @@
+package uia.sim.queues;
+
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import uia.sim.Env;
+import uia.sim.Env.Job;
+import uia.sim.Event;
+import uia.sim.Event.PriorityType;
+import uia.sim.events.Timeout;
+
+public class TimerWheelQueueTest {
+
+    @Test
+    public void testWheel() {
+        Env env = new Env();
+        TimerWheelQueue queue = new TimerWheelQueue();
+        Job j1 = new Job(new Timeout(env, 0), PriorityType.NORMAL, 5);
+        Job j2 = new Job(new Event(env, "e"), PriorityType.NORMAL, 5);
+        Job j3 = new Job(new Timeout(env, 0), PriorityType.NORMAL, 100000);
+        Job j4 = new Job(new Timeout(env, 0), PriorityType.NORMAL, 5L << 40);
+        queue.add(j4);
+        queue.add(j3);
+        queue.add(j2);
+        queue.add(j1);
+        // other events and the jobs out of the range are in the main queue.
+        Assert.assertEquals(2, queue.getWheelSize());
+        Assert.assertEquals(4, queue.size());
+        Assert.assertSame(j1, queue.poll());
+        Assert.assertSame(j2, queue.poll());
+        Assert.assertSame(j3, queue.peek());
+        Assert.assertEquals(0, queue.getWheelSize());
+        Assert.assertSame(j3, queue.poll());
+        Assert.assertSame(j4, queue.poll());
+        Assert.assertNull(queue.poll());
+    }
+
+    @Test
+    public void testHold() {
+        testHold(new TimerWheelQueue(), 1000);
+        testHold(new TimerWheelQueue(7), 1000);
+        testHold(new TimerWheelQueue(new DaryHeapQueue(), 3, 4, 2), 1000);
+        testHold(new TimerWheelQueue(new DaryHeapQueue(), 1, 16, 3), 100000);
+    }
+
+    private void testHold(TimerWheelQueue queue, int range) {
+        Env env = new Env();
+        Random r = new Random(3);
+        PriorityType[] priorities = PriorityType.values();
+        PriorityQueue<Job> expected = new PriorityQueue<>();
+        for (int i = 0; i < 200; i++) {
+            Event event = i % 5 == 0 ? new Event(env, "e" + i) : new Timeout(env, 0);
+            Job job = new Job(event, priorities[r.nextInt(priorities.length)], r.nextInt(range));
+            queue.add(job);
+            expected.add(job);
+        }
+        for (int i = 0; i < 20000; i++) {
+            Job job = expected.poll();
+            Assert.assertSame(job, queue.poll());
+            // short, long and zero delays.
+            long delay = r.nextInt(4) == 0 ? r.nextInt(range) : r.nextInt(4) == 0 ? 0 : r.nextInt(20);
+            Job next = new Job(job.event, job.priority, job.time + delay);
+            queue.add(next);
+            expected.add(next);
+        }
+        Assert.assertEquals(expected.size(), queue.size());
+        int count = 0;
+        for (Job job : queue) {
+            Assert.assertNotNull(job);
+            count++;
+        }
+        Assert.assertEquals(expected.size(), count);
+        while (!expected.isEmpty()) {
+            Assert.assertSame(expected.poll(), queue.poll());
+        }
+        Assert.assertTrue(queue.isEmpty());
+    }
+}